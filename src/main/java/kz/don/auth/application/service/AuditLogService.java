@@ -1,17 +1,24 @@
 package kz.don.auth.application.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import kz.don.auth.domain.entity.AuditLog;
+import kz.don.auth.domain.projection.AuditLogSummary;
 import kz.don.auth.domain.repository.AuditLogRepository;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
 import kz.don.auth.web.dto.request.AuditLogRequest;
 import kz.don.auth.web.dto.response.AuditLogResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.util.List;
@@ -25,18 +32,22 @@ public class AuditLogService {
 
     private final AuditLogRepository auditLogRepository;
     private final ObjectMapper objectMapper;
+    private final AuthMetrics authMetrics;
 
     /**
      * Log an external action from another microservice
      */
     @Transactional
     public void logExternalAction(AuditLogRequest request) {
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.FAILURE;
         try {
             AuditLog auditLog = AuditLog.builder()
                     .userId(request.getUserId())
                     .action(request.getAction())
                     .entityType(request.getEntityType())
                     .timestamp(parseTimestamp(request.getTimestamp()))
+                    .details(serializeDetails(request.getDetails()))
                     .ipAddress(request.getIpAddress())
                     .serviceName(request.getServiceName())
                     .build();
@@ -48,10 +59,13 @@ public class AuditLogService {
                     request.getEntityType(),
                     request.getUserId(),
                     request.getServiceName());
+            outcome = AuthMetrics.SUCCESS;
 
         } catch (Exception e) {
             log.error("Failed to create audit log: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to create audit log", e);
+        } finally {
+            authMetrics.stop(sample, AuthMetrics.AUDIT_INGEST, "http", outcome);
         }
     }
 
@@ -60,7 +74,7 @@ public class AuditLogService {
      */
     @Transactional(readOnly = true)
     public Page<AuditLogResponse> getUserAuditLogs(UUID userId, Pageable pageable) {
-        Page<AuditLog> logs = auditLogRepository.findByUserIdOrderByTimestampDesc(userId, pageable);
+        Page<AuditLogSummary> logs = auditLogRepository.findByUserIdOrderByTimestampDesc(userId, pageable);
         return logs.map(this::mapToResponse);
     }
 
@@ -69,7 +83,7 @@ public class AuditLogService {
      */
     @Transactional(readOnly = true)
     public List<AuditLogResponse> getEntityAuditLogs(String entityType, String entityId) {
-        List<AuditLog> logs = auditLogRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc(
+        List<AuditLogSummary> logs = auditLogRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc(
                 entityType, entityId);
         return logs.stream()
                 .map(this::mapToResponse)
@@ -81,7 +95,7 @@ public class AuditLogService {
      */
     @Transactional(readOnly = true)
     public Page<AuditLogResponse> getAllAuditLogs(Pageable pageable) {
-        Page<AuditLog> logs = auditLogRepository.findAllByOrderByTimestampDesc(pageable);
+        Page<AuditLogSummary> logs = auditLogRepository.findAllByOrderByTimestampDesc(pageable);
         return logs.map(this::mapToResponse);
     }
 
@@ -90,7 +104,7 @@ public class AuditLogService {
      */
     @Transactional(readOnly = true)
     public Page<AuditLogResponse> getAuditLogsByAction(String action, Pageable pageable) {
-        Page<AuditLog> logs = auditLogRepository.findByActionOrderByTimestampDesc(action, pageable);
+        Page<AuditLogSummary> logs = auditLogRepository.findByActionOrderByTimestampDesc(action, pageable);
         return logs.map(this::mapToResponse);
     }
 
@@ -99,7 +113,7 @@ public class AuditLogService {
      */
     @Transactional(readOnly = true)
     public List<AuditLogResponse> getAuditLogsByTimeRange(Instant startTime, Instant endTime) {
-        List<AuditLog> logs = auditLogRepository.findByTimestampBetweenOrderByTimestampDesc(
+        List<AuditLogSummary> logs = auditLogRepository.findByTimestampBetweenOrderByTimestampDesc(
                 startTime, endTime);
         return logs.stream()
                 .map(this::mapToResponse)
@@ -111,13 +125,14 @@ public class AuditLogService {
      */
     @Transactional(readOnly = true)
     public Page<AuditLogResponse> getAuditLogsByService(String serviceName, Pageable pageable) {
-        Page<AuditLog> logs = auditLogRepository.findByServiceNameOrderByTimestampDesc(
+        Page<AuditLogSummary> logs = auditLogRepository.findByServiceNameOrderByTimestampDesc(
                 serviceName, pageable);
         return logs.map(this::mapToResponse);
     }
 
     /**
-     * Search audit logs with multiple filters
+     * Search audit logs with multiple filters.
+     * detailsFilter is a JSON object matched against details with jsonb containment (@>)
      */
     @Transactional(readOnly = true)
     public Page<AuditLogResponse> searchAuditLogs(
@@ -126,11 +141,36 @@ public class AuditLogService {
             String entityType,
             Instant startTime,
             Instant endTime,
+            String detailsFilter,
             Pageable pageable) {
 
-        Page<AuditLog> logs = auditLogRepository.searchAuditLogs(
-                userId, action, entityType, startTime, endTime, pageable);
-        return logs.map(this::mapToResponse);
+        if (detailsFilter == null || detailsFilter.isBlank()) {
+            Page<AuditLogSummary> logs = auditLogRepository.searchAuditLogs(
+                    userId, action, entityType, startTime, endTime, pageable);
+            return logs.map(this::mapToResponse);
+        }
+
+        Page<UUID> ids = auditLogRepository.searchAuditLogIdsByDetails(
+                validateDetailsFilter(detailsFilter), userId, action, entityType,
+                startTime, endTime, pageable);
+        if (ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        List<AuditLogResponse> content = auditLogRepository.findByIdInOrderByTimestampDesc(ids.getContent())
+                .stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Get a single audit log entry, including details and user agent
+     */
+    @Transactional(readOnly = true)
+    public AuditLogResponse getAuditLog(UUID id) {
+        return auditLogRepository.findById(id)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Audit log not found"));
     }
 
     /**
@@ -169,6 +209,18 @@ public class AuditLogService {
         }
     }
 
+    private String validateDetailsFilter(String detailsFilter) {
+        try {
+            JsonNode filter = objectMapper.readTree(detailsFilter);
+            if (filter == null || !filter.isObject()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Details filter must be a JSON object");
+            }
+            return detailsFilter;
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Details filter is not valid JSON", e);
+        }
+    }
+
     private AuditLogResponse mapToResponse(AuditLog auditLog) {
         return AuditLogResponse.builder()
                 .id(auditLog.getId())
@@ -177,22 +229,23 @@ public class AuditLogService {
                 .entityType(auditLog.getEntityType())
                 .entityId(auditLog.getEntityId())
                 .timestamp(auditLog.getTimestamp())
-                .details(deserializeDetails(auditLog.getDetails()))
+                .details(auditLog.getDetails())
                 .ipAddress(auditLog.getIpAddress())
                 .userAgent(auditLog.getUserAgent())
                 .serviceName(auditLog.getServiceName())
                 .build();
     }
 
-    private Object deserializeDetails(String details) {
-        if (details == null) {
-            return null;
-        }
-        try {
-            return objectMapper.readValue(details, Object.class);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to deserialize details: {}", e.getMessage());
-            return details; // Return as string if parsing fails
-        }
+    private AuditLogResponse mapToResponse(AuditLogSummary summary) {
+        return AuditLogResponse.builder()
+                .id(summary.getId())
+                .userId(summary.getUserId())
+                .action(summary.getAction())
+                .entityType(summary.getEntityType())
+                .entityId(summary.getEntityId())
+                .timestamp(summary.getTimestamp())
+                .ipAddress(summary.getIpAddress())
+                .serviceName(summary.getServiceName())
+                .build();
     }
 }
\ No newline at end of file
@@ -1,10 +1,17 @@
 package kz.don.auth.application.service;
 
+import jakarta.persistence.EntityNotFoundException;
 import kz.don.auth.domain.entity.RefreshToken;
 import kz.don.auth.domain.enums.RoleEnum;
 import kz.don.auth.domain.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Timer;
 import kz.don.auth.domain.repository.UserRepository;
+import kz.don.auth.envers.AuditRevisions;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import kz.don.auth.infrastructure.messaging.TokenAuditEventWriter;
 import kz.don.auth.infrastructure.security.jwt.JwtService;
+import kz.don.auth.infrastructure.security.jwt.TokenEpochRefresher;
+import kz.don.auth.infrastructure.security.opaque.OpaqueTokenService;
 import kz.don.auth.web.dto.request.AuthRequest;
 import kz.don.auth.web.dto.request.RefreshTokenRequest;
 import kz.don.auth.web.dto.request.RegisterRequest;
@@ -12,6 +19,7 @@ import kz.don.auth.web.dto.response.AuthResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -20,10 +28,15 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 import kz.don.auth.domain.entity.User;
 
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -32,11 +45,28 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
+    // advance the epoch in place, so concurrent revocations each count, and write the post-update row
+    // to users_aud under the given revision: a bulk UPDATE is not seen by Envers
+    private static final String ADVANCE_TOKEN_EPOCH_SQL = "WITH changed AS (" +
+            "UPDATE users SET token_epoch = token_epoch + 1, updated_at = ? WHERE id = ? " +
+            "RETURNING id, email, full_name, password, role, enabled, created_at, updated_at, token_epoch), " +
+            "audited AS (INSERT INTO users_aud " +
+            "(id, rev, revtype, email, full_name, password, role, enabled, created_at, updated_at, token_epoch) " +
+            "SELECT id, ?, ?, email, full_name, password, role, enabled, created_at, updated_at, token_epoch " +
+            "FROM changed) " +
+            "SELECT token_epoch FROM changed";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenAuditEventWriter tokenAuditEventWriter;
+    private final TokenEpochRefresher tokenEpochRefresher;
+    private final OpaqueTokenService opaqueTokenService;
+    private final AuthMetrics authMetrics;
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRevisions auditRevisions;
 
     public AuthResponse register(RegisterRequest request) throws Exception {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -60,8 +90,17 @@ public class AuthService {
     }
 
     public AuthResponse login(AuthRequest request) {
+        return login(request, false);
+    }
+
+    /**
+     * @param opaque issue opaque reference tokens instead of JWTs
+     */
+    public AuthResponse login(AuthRequest request, boolean opaque) {
         log.info("Attempting login for user: {}", request.getEmail());
 
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.FAILURE;
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -73,17 +112,27 @@ public class AuthService {
             SecurityContextHolder.getContext().setAuthentication(authentication);
             User user = (User) authentication.getPrincipal();
             log.info("User logged in: {}", user.getUsername());
-            return generateAuthResponse(user);
+            AuthResponse response = opaque ? generateOpaqueAuthResponse(user) : generateAuthResponse(user);
+            outcome = AuthMetrics.SUCCESS;
+            return response;
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (BadCredentialsException e) {
             log.error("Bad credentials for user: {}", request.getEmail());
+            authMetrics.recordAuthFailure("bad_credentials");
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid username or password", e);
         } catch (Exception e) {
             log.error("Authentication failed for user: {}", request.getEmail(), e);
+            authMetrics.recordAuthFailure("authentication_error");
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Authentication failed", e);
+        } finally {
+            authMetrics.stop(sample, AuthMetrics.AUTH_REQUESTS, "login", outcome);
         }
     }
 
     public AuthResponse refreshToken(RefreshTokenRequest request) {
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.FAILURE;
         try {
             if (!jwtService.isTokenStructureValid(request.getRefreshToken())) {
                 throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token format");
@@ -116,15 +165,22 @@ public class AuthService {
                 throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid user associated with token");
             }
 
+            if (jwtService.getTokenEpochIgnoreExpiration(request.getRefreshToken()) < user.getTokenEpoch()) {
+                log.warn("Refresh token issued before session revocation for user: {}", userId);
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token revoked");
+            }
+
             String newAccessToken = jwtService.generateAccessToken(user);
             String newRefreshToken = jwtService.generateRefreshToken(user);
 
             refreshToken.setToken(newRefreshToken);
             refreshToken.setExpiryDate(Instant.now().plusMillis(jwtService.getRefreshExpiration()));
             refreshTokenRepository.save(refreshToken);
+            tokenAuditEventWriter.record("TOKEN_ROTATED", user.getId(), refreshToken.getId());
 
             log.info("Refreshed tokens for user: {}", user.getUsername());
 
+            outcome = AuthMetrics.SUCCESS;
             return AuthResponse.builder()
                     .accessToken(newAccessToken)
                     .refreshToken(newRefreshToken)
@@ -135,13 +191,75 @@ public class AuthService {
                     .build();
 
         } catch (ResponseStatusException e) {
+            authMetrics.recordAuthFailure("invalid_refresh_token");
             throw e;
         } catch (Exception e) {
             log.error("Error refreshing token: {}", e.getMessage(), e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error refreshing token", e);
+        } finally {
+            authMetrics.stop(sample, AuthMetrics.AUTH_REQUESTS, "refresh", outcome);
+        }
+    }
+
+    /**
+     * Exchange an opaque refresh token for a new access and refresh token pair; the old pair stops working
+     */
+    public AuthResponse refreshOpaqueToken(RefreshTokenRequest request) {
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.FAILURE;
+        try {
+            OpaqueTokenService.RefreshSession session = opaqueTokenService.consumeRefresh(request.getRefreshToken());
+
+            User user = userRepository.findById(session.userId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED,
+                            "Invalid user associated with token"));
+            if (!user.isEnabled() || session.epoch() < user.getTokenEpoch()) {
+                log.warn("Revoked opaque refresh token presented for user: {}", user.getId());
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token revoked");
+            }
+
+            AuthResponse response = generateOpaqueAuthResponse(user);
+            tokenAuditEventWriter.record("TOKEN_ROTATED", user.getId(), null);
+            log.info("Refreshed opaque tokens for user: {}", user.getUsername());
+            outcome = AuthMetrics.SUCCESS;
+            return response;
+        } catch (ResponseStatusException e) {
+            if (HttpStatus.UNAUTHORIZED.equals(e.getStatusCode())) {
+                authMetrics.recordAuthFailure("invalid_refresh_token");
+            }
+            throw e;
+        } finally {
+            authMetrics.stop(sample, AuthMetrics.AUTH_REQUESTS, "refresh", outcome);
         }
     }
 
+    /**
+     * Revoke the opaque session an access or refresh token belongs to, both tokens at once
+     */
+    public void logoutOpaque(RefreshTokenRequest request) {
+        if (!opaqueTokenService.revoke(request.getRefreshToken())) {
+            log.warn("Opaque token not found during logout");
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+        SecurityContextHolder.clearContext();
+        log.info("Opaque session revoked");
+    }
+
+    private AuthResponse generateOpaqueAuthResponse(User user) {
+        OpaqueTokenService.Tokens tokens = opaqueTokenService.issue(user.getId(), user.getTokenEpoch());
+        tokenAuditEventWriter.record("TOKEN_ISSUED", user.getId(), null);
+
+        return AuthResponse.builder()
+                .accessToken(tokens.accessToken())
+                .refreshToken(tokens.refreshToken())
+                .tokenType(OpaqueTokenService.TOKEN_TYPE)
+                .userId(user.getId())
+                .username(user.getUsername())
+                .fullName(user.getFullName())
+                .role(user.getRole())
+                .build();
+    }
+
     private AuthResponse generateAuthResponse(User user) {
 
         String accessToken = jwtService.generateAccessToken(user);
@@ -153,7 +271,8 @@ public class AuthService {
         refreshTokenEntity.setToken(refreshToken);
         refreshTokenEntity.setExpiryDate(Instant.now().plusMillis(jwtService.getRefreshExpiration()));
 
-        refreshTokenRepository.save(refreshTokenEntity);
+        refreshTokenEntity = refreshTokenRepository.save(refreshTokenEntity);
+        tokenAuditEventWriter.record("TOKEN_ISSUED", user.getId(), refreshTokenEntity.getId());
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
@@ -177,6 +296,38 @@ public class AuthService {
         }
     }
 
+    /**
+     * Invalidate every access and refresh token issued to the user so far by advancing their token
+     * epoch; the stored refresh token is dropped as well. The increment happens in the database, so
+     * concurrent revocations cannot collapse into one, and is recorded in users_aud under a revision of
+     * its own. The epoch table is only advanced once the change has committed
+     *
+     * @return the user's new token epoch
+     * @throws EntityNotFoundException if there is no such user
+     */
+    @Transactional
+    public long revokeAllSessions(UUID userId) {
+        int revision = auditRevisions.newRevision();
+        long epoch = jdbcTemplate.queryForList(ADVANCE_TOKEN_EPOCH_SQL, Long.class,
+                        Timestamp.valueOf(LocalDateTime.now()), userId, revision, AuditRevisions.REVTYPE_MOD)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+
+        Optional<RefreshToken> refreshToken = refreshTokenRepository.findByUserId(userId);
+        refreshToken.ifPresent(refreshTokenRepository::delete);
+        tokenAuditEventWriter.record("TOKEN_REVOKED", userId, refreshToken.map(RefreshToken::getId).orElse(null));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenEpochRefresher.advance(userId, epoch);
+            }
+        });
+        log.info("Revoked all sessions of user: {}", userId);
+        return epoch;
+    }
+
     public void logout(RefreshTokenRequest request) {
         try {
             if (!jwtService.isTokenStructureValid(request.getRefreshToken())) {
@@ -186,6 +337,9 @@ public class AuthService {
             Optional<RefreshToken> refreshToken = refreshTokenRepository.findByToken(request.getRefreshToken());
             if (refreshToken.isPresent()) {
                 refreshTokenRepository.delete(refreshToken.get());
+                tokenAuditEventWriter.record("TOKEN_REVOKED",
+                        refreshToken.get().getUser() != null ? refreshToken.get().getUser().getId() : null,
+                        refreshToken.get().getId());
                 log.info("User logged out successfully");
             } else {
                 log.warn("Refresh token not found during logout");
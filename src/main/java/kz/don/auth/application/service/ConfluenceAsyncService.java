@@ -0,0 +1,257 @@
+package kz.don.auth.application.service;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Timer;
+import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.infrastructure.confluence.ConfluenceApiException;
+import kz.don.auth.infrastructure.confluence.ConfluenceContentCache;
+import kz.don.auth.infrastructure.confluence.ConfluenceContentCache.SearchKey;
+import kz.don.auth.infrastructure.confluence.ConfluenceJson;
+import kz.don.auth.infrastructure.confluence.ConfluenceMirrorWriter;
+import kz.don.auth.infrastructure.confluence.ConfluenceRequestTemplate;
+import kz.don.auth.infrastructure.confluence.ConfluenceRequestTemplates;
+import kz.don.auth.infrastructure.confluence.ConfluenceResilience;
+import kz.don.auth.infrastructure.confluence.ContentPayload;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import kz.don.auth.web.dto.ConfluencePageDTO;
+import kz.don.auth.web.dto.request.CreatePageRequestDTO;
+import kz.don.auth.web.dto.request.SearchRequestDTO;
+import kz.don.auth.web.dto.response.BulkUploadResponseDTO;
+import kz.don.auth.web.dto.response.ConfluenceSearchResponseDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * CompletableFuture variants of the {@link ConfluenceService} operations on the non-blocking client.
+ * No thread is held while a request is in flight, so fan-outs (bulk creates, parallel searches)
+ * are bounded by {@link ConfluenceResilience#executeAllAsync} rather than by threads; the bulk
+ * uploads of {@link ConfluenceService} and the search endpoint run on it.
+ * Completion stages run on the I/O reactor threads: chain blocking work with the *Async variants.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfluenceAsyncService {
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+    private final ConfluenceProperties properties;
+    private final ConfluenceJson json;
+    private final AuthMetrics authMetrics;
+    private final ConfluenceContentCache contentCache;
+    private final ConfluenceResilience resilience;
+    private final ConfluenceRequestTemplates templates;
+    private final ConfluenceMirrorWriter mirrorWriter;
+
+    /**
+     * Search for pages in Confluence by various criteria, sharing in-flight and recent results with
+     * the blocking service
+     */
+    public CompletableFuture<ConfluenceSearchResponseDTO> searchPages(SearchRequestDTO searchRequest) {
+        String cql = ConfluenceService.buildCql(searchRequest);
+        SearchKey key = SearchKey.of(cql, searchRequest.getStart(), searchRequest.getLimit());
+        return contentCache.getSearchAsync(key, () -> fetchSearch(cql, searchRequest));
+    }
+
+    private CompletableFuture<ConfluenceSearchResponseDTO> fetchSearch(String cql, SearchRequestDTO searchRequest) {
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content/search")
+                .encodedQuery("cql", cql)
+                .query("limit", searchRequest.getLimit())
+                .query("start", searchRequest.getStart())
+                .query("expand", ConfluenceRequestTemplate.EXPAND_PAGE)
+                .build();
+
+        log.info("Searching Confluence with CQL: {}", cql);
+
+        return execute("search_pages", get(template, url), json.searchResults(), "Failed to search pages");
+    }
+
+    /**
+     * Fetch a page by ID; the result refreshes the shared page cache
+     */
+    public CompletableFuture<ConfluencePageDTO> getPageById(String pageId) {
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content").path(pageId)
+                .query("expand", ConfluenceRequestTemplate.EXPAND_PAGE)
+                .build();
+
+        return this.<ConfluencePageDTO>execute("get_page", get(template, url), json.pages(), "Failed to get page")
+                .thenApply(page -> {
+                    contentCache.putPage(page);
+                    return page;
+                });
+    }
+
+    /**
+     * Create a new page in Confluence
+     */
+    public CompletableFuture<ConfluencePageDTO> createPage(CreatePageRequestDTO createRequest) {
+        String spaceKey = createRequest.getSpaceKey() != null ?
+                createRequest.getSpaceKey() : properties.getDefaultSpaceKey();
+
+        ContentPayload payload = ContentPayload.create(createRequest.getTitle(), spaceKey,
+                createRequest.getContent(), createRequest.getRepresentation(), createRequest.getParentPageId());
+
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content").build();
+
+        return this.<ConfluencePageDTO>execute("create_page",
+                        withBody(template, SimpleRequestBuilder.post(url), payload),
+                        json.pages(), "Failed to create page")
+                .thenApply(page -> {
+                    contentCache.invalidatePage(createRequest.getParentPageId());
+                    contentCache.invalidateSearches();
+                    mirrorWriter.pageWritten(page);
+                    return page;
+                });
+    }
+
+    /**
+     * Update an existing page
+     */
+    public CompletableFuture<ConfluencePageDTO> updatePage(String pageId, String title, String content,
+                                                           Integer currentVersion) {
+        ContentPayload payload = ContentPayload.update(title, content, currentVersion + 1);
+
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content").path(pageId).build();
+
+        return this.<ConfluencePageDTO>execute("update_page",
+                        withBody(template, SimpleRequestBuilder.put(url), payload),
+                        json.pages(), "Failed to update page")
+                .thenApply(page -> {
+                    contentCache.invalidatePage(pageId);
+                    contentCache.invalidateSearches();
+                    mirrorWriter.pageWritten(page);
+                    return page;
+                });
+    }
+
+    /**
+     * Create pages concurrently, at most bulkUploadConcurrency (capped at the per-route connection limit)
+     * in flight at once. Results keep the input order and a failed page is reported in its slot
+     */
+    public CompletableFuture<List<BulkUploadResponseDTO.UploadedDocument>> createPages(
+            List<CreatePageRequestDTO> docRequests) {
+        return createPages(docRequests, doc -> { });
+    }
+
+    /**
+     * Same as {@link #createPages(List)}, reporting each document to onDocument as it finishes;
+     * onDocument runs on an I/O reactor thread and must be quick
+     */
+    public CompletableFuture<List<BulkUploadResponseDTO.UploadedDocument>> createPages(
+            List<CreatePageRequestDTO> docRequests, Consumer<BulkUploadResponseDTO.UploadedDocument> onDocument) {
+        int concurrency = Math.max(1,
+                Math.min(properties.getBulkUploadConcurrency(), properties.getMaxConnectionsPerRoute()));
+        return resilience.executeAllAsync(docRequests, concurrency, docRequest -> createPage(docRequest)
+                .handle((page, error) -> {
+                    BulkUploadResponseDTO.UploadedDocument result = error == null
+                            ? uploadedDocument(page)
+                            : failedDocument(docRequest, error);
+                    onDocument.accept(result);
+                    return result;
+                }));
+    }
+
+    private BulkUploadResponseDTO.UploadedDocument uploadedDocument(ConfluencePageDTO page) {
+        log.info("Uploaded document: {} with ID: {}", page.getTitle(), page.getId());
+        return BulkUploadResponseDTO.UploadedDocument.builder()
+                .title(page.getTitle())
+                .pageId(page.getId())
+                .url(templates.current().link(page.getLinks().getWebui()))
+                .success(true)
+                .build();
+    }
+
+    private BulkUploadResponseDTO.UploadedDocument failedDocument(CreatePageRequestDTO docRequest, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        log.error("Failed to create document '{}': {}", docRequest.getTitle(), cause.getMessage());
+        return BulkUploadResponseDTO.UploadedDocument.builder()
+                .title(docRequest.getTitle())
+                .success(false)
+                .error(cause.getMessage())
+                .build();
+    }
+
+    /**
+     * Send a request through the shared circuit breaker, binding a 2xx body with reader;
+     * timed under confluence.requests like the blocking client
+     */
+    private <T> CompletableFuture<T> execute(String operation, SimpleHttpRequest request,
+                                             ObjectReader reader, String failureMessage) {
+        Timer.Sample sample = authMetrics.start();
+        return resilience.<T>executeAsync(() -> send(request, reader, failureMessage))
+                .whenComplete((value, error) -> authMetrics.stop(sample, AuthMetrics.CONFLUENCE_REQUESTS,
+                        operation, error == null ? AuthMetrics.SUCCESS : AuthMetrics.FAILURE));
+    }
+
+    private <T> CompletableFuture<T> send(SimpleHttpRequest request, ObjectReader reader, String failureMessage) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        httpAsyncClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                try {
+                    result.complete(readBody(response, reader, failureMessage));
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        return result;
+    }
+
+    private <T> T readBody(SimpleHttpResponse response, ObjectReader reader, String failureMessage)
+            throws IOException {
+        if (response.getCode() >= 200 && response.getCode() < 300) {
+            return reader.readValue(response.getBodyBytes());
+        }
+        log.error("{} with status {}: {}", failureMessage, response.getCode(), response.getBodyText());
+        throw ConfluenceApiException.of(response, failureMessage + ": " + response.getCode());
+    }
+
+    private SimpleHttpRequest get(ConfluenceRequestTemplate template, String url) {
+        return SimpleRequestBuilder.get(url)
+                .setHeader(HttpHeaders.AUTHORIZATION, template.getAuthorization())
+                .build();
+    }
+
+    private SimpleHttpRequest withBody(ConfluenceRequestTemplate template, SimpleRequestBuilder builder,
+                                       ContentPayload payload) {
+        try {
+            return builder
+                    .setHeader(HttpHeaders.AUTHORIZATION, template.getAuthorization())
+                    .setBody(json.bytes(payload), ContentType.APPLICATION_JSON)
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
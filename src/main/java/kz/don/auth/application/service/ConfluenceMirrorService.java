@@ -0,0 +1,517 @@
+package kz.don.auth.application.service;
+
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.domain.entity.ConfluenceSyncState;
+import kz.don.auth.domain.entity.MirroredPage;
+import kz.don.auth.domain.repository.ConfluenceSyncStateRepository;
+import kz.don.auth.domain.repository.MirroredPageRepository;
+import kz.don.auth.infrastructure.confluence.ConfluenceMirrorWriter;
+import kz.don.auth.infrastructure.confluence.ConfluenceRequestTemplates;
+import kz.don.auth.infrastructure.confluence.ConfluenceSearchIndex;
+import kz.don.auth.infrastructure.confluence.StorageText;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import kz.don.auth.web.dto.ConfluencePageDTO;
+import kz.don.auth.web.dto.request.SearchRequestDTO;
+import kz.don.auth.web.dto.response.ConfluenceSearchResponseDTO;
+import kz.don.auth.web.dto.response.GetAllFilesResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Local Postgres mirror of Confluence pages for the read-heavy Django endpoints.
+ * Each sync pass pulls only pages modified since the stored watermark (minus mirrorOverlapMs, since CQL
+ * dates have minute precision) and upserts them in JDBC batches; a row is only replaced by the same or
+ * a newer version. Every mirrorReconcileIntervalMs each space is also reconciled against a keyset listing of
+ * its page ids: rows of pages deleted, trashed or moved away are removed, and pages listed but missing
+ * (moved in) are fetched.
+ * Every configured space keeps its own watermark (scope "pages:KEY"; "pages" when all spaces are mirrored),
+ * so a space added to mirrorSpaceKeys is backfilled from scratch and is not served from the mirror until
+ * its first pass succeeds. Only one replica syncs at a time, holding a Postgres advisory lock; the others
+ * pick up the sync state and newly written pages from the table.
+ * Rows are written through {@link ConfluenceMirrorWriter}, which also feeds {@link ConfluenceSearchIndex} so plain
+ * text searches can be answered locally.
+ */
+@Slf4j
+@Service
+public class ConfluenceMirrorService {
+
+    public static final String SCOPE = "pages";
+    // set on responses served from the mirror: ISO-8601 instant the mirror was last brought up to date
+    public static final String SYNCED_AT_HEADER = "X-Mirror-Synced-At";
+
+    private static final String LOCAL_IDS_SQL = "SELECT id, space_key FROM confluence_pages WHERE synced_at < ?";
+
+    private static final int READ_BATCH_SIZE = 500; // matches findTop500...
+    // pg advisory lock key held by the replica running a sync pass
+    private static final long SYNC_LOCK_KEY = 0x636f6e666d6972L;
+    // CQL/Lucene syntax the local index does not interpret: phrases, wildcards, fuzzy, boolean operators
+    private static final Pattern UNSUPPORTED_QUERY = Pattern.compile("[\"*?~^:()\\\\\\[\\]{}]|(^|\\s)[-+!]|\\b(AND|OR|NOT)\\b");
+
+    private final ConfluenceService confluenceService;
+    private final MirroredPageRepository pageRepository;
+    private final ConfluenceSyncStateRepository syncStateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConfluenceProperties properties;
+    private final ConfluenceRequestTemplates templates;
+    private final ConfluenceSearchIndex searchIndex;
+    private final ConfluenceMirrorWriter mirrorWriter;
+
+    // per scope, start of the last successful pass: the space reflects Confluence at least as of this instant
+    private final Map<String, Instant> lastSyncedAt = new ConcurrentHashMap<>();
+    // newest pass whose pages are all in the search index
+    private volatile Instant indexedThrough;
+    // per scope, start of the last reconciliation run by this replica
+    private final Map<String, Instant> lastReconciledAt = new ConcurrentHashMap<>();
+
+    public ConfluenceMirrorService(ConfluenceService confluenceService, MirroredPageRepository pageRepository,
+                                   ConfluenceSyncStateRepository syncStateRepository, JdbcTemplate jdbcTemplate,
+                                   ConfluenceProperties properties, ConfluenceRequestTemplates templates,
+                                   ConfluenceSearchIndex searchIndex, ConfluenceMirrorWriter mirrorWriter,
+                                   AuthMetrics authMetrics) {
+        this.confluenceService = confluenceService;
+        this.pageRepository = pageRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.templates = templates;
+        this.searchIndex = searchIndex;
+        this.mirrorWriter = mirrorWriter;
+
+        Gauge.builder("confluence.mirror.age", this, mirror -> {
+                    Instant oldest = mirror.oldestSync();
+                    return oldest != null ? (System.currentTimeMillis() - oldest.toEpochMilli()) / 1000.0 : Double.NaN;
+                })
+                .baseUnit("seconds")
+                .register(authMetrics.getRegistry());
+        Gauge.builder("confluence.search.index.docs", searchIndex, ConfluenceSearchIndex::size)
+                .register(authMetrics.getRegistry());
+    }
+
+    @PostConstruct
+    void loadState() {
+        if (!properties.isMirrorEnabled()) {
+            return;
+        }
+        for (String spaceKey : spaces()) {
+            syncStateRepository.findById(scope(spaceKey))
+                    .map(ConfluenceSyncState::getLastSuccessAt)
+                    .ifPresent(at -> lastSyncedAt.put(scope(spaceKey), at));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${confluence.mirror-sync-interval-ms:60000}")
+    public void scheduledSync() {
+        if (!properties.isMirrorEnabled()) {
+            return;
+        }
+        try {
+            if (!searchIndex.isReady()) {
+                rebuildIndex();
+            }
+            if (!syncIfUnlocked()) {
+                followSync();
+            }
+        } catch (Exception e) {
+            log.warn("Confluence mirror sync failed, serving data as of {}: {}", oldestSync(), e.getMessage());
+        }
+    }
+
+    /**
+     * Run a pass under the advisory lock, held on a connection of its own for the length of the pass.
+     * Passes another replica ran since our last look are indexed first, so the index misses nothing
+     * when the lock changes hands
+     *
+     * @return false if another replica holds the lock
+     */
+    private boolean syncIfUnlocked() throws IOException, SQLException {
+        try (Connection connection = Objects.requireNonNull(jdbcTemplate.getDataSource()).getConnection()) {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                return false;
+            }
+            try {
+                followSync();
+                sync();
+                reconcileDue();
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+            }
+            return true;
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, SYNC_LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Reload the sync progress other replicas stored and index the pages they wrote since our last look
+     */
+    private void followSync() {
+        loadState();
+        Instant newest = lastSyncedAt.values().stream().max(Comparator.naturalOrder()).orElse(null);
+        if (newest == null || (indexedThrough != null && !newest.isAfter(indexedThrough))) {
+            return;
+        }
+        int total = 0;
+        Instant after = indexedThrough != null ? indexedThrough : Instant.EPOCH;
+        String afterId = "";
+        List<MirroredPage> batch;
+        do {
+            batch = pageRepository.findTop500BySyncedAtAfterAndIdGreaterThanOrderByIdAsc(after, afterId);
+            batch.forEach(this::index);
+            total += batch.size();
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == READ_BATCH_SIZE);
+        indexedThrough = newest;
+        log.debug("Indexed {} pages mirrored by another replica since {}", total, after);
+    }
+
+    /**
+     * Run one incremental pass over every mirrored space. A space's watermark only advances once every
+     * changed page in it has been written, so a failed pass is simply repeated from the same point; one
+     * failing space does not hold back the others
+     *
+     * @return number of pages upserted
+     */
+    public synchronized int sync() throws IOException {
+        int total = 0;
+        Exception failure = null;
+        for (String spaceKey : spaces()) {
+            try {
+                total += sync(spaceKey);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Confluence mirror sync of {} failed: {}", scope(spaceKey), e.getMessage());
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+        return total;
+    }
+
+    private int sync(String spaceKey) throws IOException {
+        String scope = scope(spaceKey);
+        ConfluenceSyncState state = syncStateRepository.findById(scope)
+                .orElseGet(() -> ConfluenceSyncState.builder().scope(scope).build());
+        Instant startedAt = Instant.now();
+        Instant since = state.getWatermark() != null
+                ? state.getWatermark().minusMillis(properties.getMirrorOverlapMs())
+                : null;
+
+        int batchSize = properties.getMirrorBatchSize();
+        List<ConfluencePageDTO> batch = new ArrayList<>(batchSize);
+        Instant[] newest = {state.getWatermark()};
+
+        int total;
+        try {
+            total = confluenceService.forEachPageModifiedSince(since, ZoneId.of(properties.getMirrorCqlZone()),
+                    spaceKey != null ? List.of(spaceKey) : List.of(), batchSize, page -> {
+                        batch.add(page);
+                        Instant modified = ConfluenceMirrorWriter.lastModified(page, startedAt);
+                        if (newest[0] == null || modified.isAfter(newest[0])) {
+                            newest[0] = modified;
+                        }
+                        if (batch.size() >= batchSize) {
+                            mirrorWriter.upsert(batch, startedAt);
+                            batch.clear();
+                        }
+                    });
+            mirrorWriter.upsert(batch, startedAt);
+        } catch (IOException | RuntimeException e) {
+            state.setLastAttemptAt(startedAt);
+            syncStateRepository.save(state);
+            throw e;
+        }
+
+        state.setWatermark(newest[0] != null ? newest[0] : startedAt);
+        state.setLastSuccessAt(startedAt);
+        state.setLastAttemptAt(startedAt);
+        state.setPagesSynced(total);
+        syncStateRepository.save(state);
+        lastSyncedAt.put(scope, startedAt);
+        if (indexedThrough == null || startedAt.isAfter(indexedThrough)) {
+            indexedThrough = startedAt;
+        }
+
+        log.info("Confluence mirror synced {} pages of {} changed since {}, watermark now {}",
+                total, scope, since, state.getWatermark());
+        return total;
+    }
+
+    /**
+     * Reconcile every synced space whose last reconciliation is older than mirrorReconcileIntervalMs.
+     * A failure is logged and the space is tried again on the next pass
+     */
+    private void reconcileDue() {
+        Instant now = Instant.now();
+        for (String spaceKey : spaces()) {
+            String scope = scope(spaceKey);
+            Instant last = lastReconciledAt.get(scope);
+            if (lastSyncedAt.get(scope) == null
+                    || (last != null && last.plusMillis(properties.getMirrorReconcileIntervalMs()).isAfter(now))) {
+                continue;
+            }
+            try {
+                reconcile(spaceKey);
+                lastReconciledAt.put(scope, now);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Confluence mirror reconciliation of {} failed: {}", scope, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Compare the mirrored rows of a space with the ids Confluence lists for it: rows it no longer lists
+     * (deleted, trashed, moved to another space) are removed, and pages it lists that the mirror lacks
+     * or files under another space are fetched and upserted. Rows written after the listing started
+     * are left alone
+     */
+    private void reconcile(String spaceKey) throws IOException {
+        Instant startedAt = Instant.now();
+        Map<String, String> remote = new HashMap<>();
+        confluenceService.forEachPageId(spaceKey, READ_BATCH_SIZE,
+                page -> remote.put(page.getId(), page.getSpace() != null ? page.getSpace().getKey() : ""));
+
+        Map<String, String> local = new HashMap<>();
+        String sql = spaceKey != null ? LOCAL_IDS_SQL + " AND space_key = ?" : LOCAL_IDS_SQL;
+        Object[] args = spaceKey != null
+                ? new Object[]{Timestamp.from(startedAt), spaceKey}
+                : new Object[]{Timestamp.from(startedAt)};
+        jdbcTemplate.query(sql, rs -> {
+            local.put(rs.getString(1), rs.getString(2));
+        }, args);
+
+        List<String> removed = local.keySet().stream().filter(id -> !remote.containsKey(id)).toList();
+        List<String> missing = remote.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(local.get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .toList();
+
+        mirrorWriter.remove(removed);
+
+        int batchSize = properties.getMirrorBatchSize();
+        List<ConfluencePageDTO> batch = new ArrayList<>(batchSize);
+        confluenceService.forEachPageById(missing, page -> {
+            batch.add(page);
+            if (batch.size() >= batchSize) {
+                mirrorWriter.upsert(batch, startedAt);
+                batch.clear();
+            }
+        });
+        mirrorWriter.upsert(batch, startedAt);
+
+        log.info("Confluence mirror reconciled {}: {} pages listed, {} removed, {} fetched",
+                scope(spaceKey), remote.size(), removed.size(), missing.size());
+    }
+
+    /**
+     * Mirrored spaces; a single null when every space is mirrored
+     */
+    private List<String> spaces() {
+        List<String> spaceKeys = properties.getMirrorSpaceKeys();
+        return spaceKeys == null || spaceKeys.isEmpty() ? Collections.singletonList(null) : spaceKeys;
+    }
+
+    private static String scope(String spaceKey) {
+        return spaceKey != null ? SCOPE + ":" + spaceKey : SCOPE;
+    }
+
+    /**
+     * Start of the last successful pass of the least recently synced space; null until every space has one
+     */
+    private Instant oldestSync() {
+        Instant oldest = null;
+        for (String spaceKey : spaces()) {
+            Instant at = lastSyncedAt.get(scope(spaceKey));
+            if (at == null) {
+                return null;
+            }
+            if (oldest == null || at.isBefore(oldest)) {
+                oldest = at;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Load the search index from the mirror table; runs once before the first sync after startup
+     */
+    private void rebuildIndex() {
+        searchIndex.clear();
+        // passes finished before the walk are fully in the table; later ones are picked up by followSync
+        loadState();
+        indexedThrough = lastSyncedAt.values().stream().max(Comparator.naturalOrder()).orElse(null);
+        int total = 0;
+        String afterId = "";
+        List<MirroredPage> batch;
+        do {
+            batch = pageRepository.findTop500ByIdGreaterThanOrderByIdAsc(afterId);
+            batch.forEach(this::index);
+            total += batch.size();
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == READ_BATCH_SIZE);
+        searchIndex.markReady();
+        log.info("Confluence search index rebuilt from {} mirrored pages", total);
+    }
+
+    private void index(MirroredPage page) {
+        searchIndex.index(page.getId(), page.getSpaceKey(), page.getTitle(), page.getContent(), page.getVersion());
+    }
+
+    /**
+     * Answer a search from the local index when it can stand in for the remote CQL search: plain terms,
+     * pages only, no labels, and every space in scope mirrored. Empty otherwise, and the caller should
+     * query Confluence
+     */
+    public Optional<ConfluenceSearchResponseDTO> search(SearchRequestDTO request) {
+        String query = request.getQuery();
+        String spaceKey = request.getSpaceKey() != null && !request.getSpaceKey().isEmpty()
+                ? request.getSpaceKey() : null;
+        if (!searchIndex.isReady() || !covers(spaceKey)
+                || query == null || query.isBlank() || UNSUPPORTED_QUERY.matcher(query).find()
+                || (request.getLabels() != null && !request.getLabels().isEmpty())
+                || (request.getType() != null && !request.getType().isEmpty() && !"page".equals(request.getType()))) {
+            return Optional.empty();
+        }
+        List<String> terms = StorageText.tokenize(query);
+        if (terms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int start = request.getStart() != null ? request.getStart() : 0;
+        int limit = request.getLimit() != null ? request.getLimit() : 25;
+        List<ConfluenceSearchIndex.Hit> hits = searchIndex.search(terms, spaceKey, start, limit);
+
+        Map<String, MirroredPage> pages = pageRepository.findAllById(
+                        hits.stream().map(ConfluenceSearchIndex.Hit::pageId).toList())
+                .stream()
+                .collect(Collectors.toMap(MirroredPage::getId, Function.identity()));
+        List<ConfluencePageDTO> results = hits.stream()
+                .map(hit -> pages.get(hit.pageId()))
+                .filter(Objects::nonNull)
+                .map(this::toPage)
+                .toList();
+
+        return Optional.of(new ConfluenceSearchResponseDTO(results, start, limit, results.size(), null));
+    }
+
+    /**
+     * Whether reads for spaceKey can be served from the mirror: enabled, and the space is among
+     * mirrorSpaceKeys (or all spaces are mirrored) and has been synced at least once. A null spaceKey
+     * means every space, so it is only covered when all spaces are mirrored
+     */
+    public boolean covers(String spaceKey) {
+        return getLastSyncedAt(spaceKey) != null;
+    }
+
+    /**
+     * Start of the last successful pass over spaceKey, or null when the space is not served from the mirror
+     */
+    public Instant getLastSyncedAt(String spaceKey) {
+        if (!properties.isMirrorEnabled()) {
+            return null;
+        }
+        String key = spaceKey != null && !spaceKey.isEmpty() ? spaceKey : null;
+        List<String> spaceKeys = properties.getMirrorSpaceKeys();
+        if (spaceKeys == null || spaceKeys.isEmpty()) {
+            return lastSyncedAt.get(SCOPE);
+        }
+        return key != null && spaceKeys.contains(key) ? lastSyncedAt.get(scope(key)) : null;
+    }
+
+    /**
+     * Stream every mirrored file in spaceKey to consumer, keyset-paged by id
+     *
+     * @return number of files visited
+     */
+    public int forEachFile(String spaceKey, Consumer<GetAllFilesResponseDTO.FileDTO> consumer) {
+        int total = 0;
+        String afterId = "";
+        List<MirroredPage> batch;
+        do {
+            batch = pageRepository.findTop500BySpaceKeyAndIdGreaterThanOrderByIdAsc(spaceKey, afterId);
+            for (MirroredPage page : batch) {
+                consumer.accept(toFile(page));
+            }
+            total += batch.size();
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == READ_BATCH_SIZE);
+        return total;
+    }
+
+    public List<ConfluencePageDTO> getPagesBySpace(String spaceKey, Integer limit) {
+        return pageRepository.findBySpaceKeyOrderByTitleAsc(spaceKey, PageRequest.of(0, limit != null ? limit : 100))
+                .stream()
+                .map(this::toPage)
+                .toList();
+    }
+
+    private GetAllFilesResponseDTO.FileDTO toFile(MirroredPage page) {
+        return GetAllFilesResponseDTO.FileDTO.builder()
+                .id(page.getId())
+                .title(page.getTitle())
+                .content(page.getContent())
+                .url(page.getWebui() != null ? templates.current().link(page.getWebui()) : null)
+                .build();
+    }
+
+    private ConfluencePageDTO toPage(MirroredPage page) {
+        return ConfluencePageDTO.builder()
+                .id(page.getId())
+                .type("page")
+                .status("current")
+                .title(page.getTitle())
+                .space(new ConfluencePageDTO.SpaceDTO(page.getSpaceKey(), null))
+                .body(new ConfluencePageDTO.BodyDTO(
+                        new ConfluencePageDTO.BodyDTO.StorageDTO(page.getContent(), "storage")))
+                .version(new ConfluencePageDTO.VersionDTO(page.getVersion(), null, page.getLastModified().toString()))
+                .links(new ConfluencePageDTO.LinksDTO(page.getWebui(), null))
+                .build();
+    }
+}
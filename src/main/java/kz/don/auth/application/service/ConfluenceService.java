@@ -1,27 +1,50 @@
 package kz.don.auth.application.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Timer;
 import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.infrastructure.confluence.ConfluenceApiException;
+import kz.don.auth.infrastructure.confluence.ConfluenceContentCache;
+import kz.don.auth.infrastructure.confluence.ConfluenceContentCache.SearchKey;
+import kz.don.auth.infrastructure.confluence.ConfluenceJson;
+import kz.don.auth.infrastructure.confluence.ConfluenceMirrorWriter;
+import kz.don.auth.infrastructure.confluence.ConfluenceRequestTemplate;
+import kz.don.auth.infrastructure.confluence.ConfluenceRequestTemplates;
+import kz.don.auth.infrastructure.confluence.ConfluenceResilience;
+import kz.don.auth.infrastructure.confluence.ContentPayload;
+import kz.don.auth.infrastructure.confluence.CreatedPage;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
 import kz.don.auth.web.dto.ConfluencePageDTO;
+import kz.don.auth.web.dto.ConfluenceSpaceDTO;
 import kz.don.auth.web.dto.request.BulkUploadRequestDTO;
 import kz.don.auth.web.dto.request.CreatePageRequestDTO;
 import kz.don.auth.web.dto.request.SearchRequestDTO;
 import kz.don.auth.web.dto.response.BulkUploadResponseDTO;
 import kz.don.auth.web.dto.response.ConfluenceSearchResponseDTO;
+import kz.don.auth.web.dto.response.GetAllFilesResponseDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,17 +54,50 @@ public class ConfluenceService {
 
     private final CloseableHttpClient httpClient;
     private final ConfluenceProperties properties;
-    private final ObjectMapper objectMapper;
-
-    private static final String API_PATH = "/rest/api";
+    private final ConfluenceJson json;
+    private final AuthMetrics authMetrics;
+    private final ConfluenceContentCache contentCache;
+    private final ConfluenceResilience resilience;
+    private final ConfluenceRequestTemplates templates;
+    private final ConfluenceAsyncService asyncService;
+    private final ConfluenceMirrorWriter mirrorWriter;
+
+    private static final int LISTING_PAGE_SIZE = 500;
+    // ids per "id in (...)" query, keeping the request URL well under common 8 KB limits
+    private static final int ID_BATCH_SIZE = 100;
+    private static final DateTimeFormatter CQL_DATE = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
 
     /**
-     * Search for pages in Confluence by various criteria
+     * Search for pages in Confluence by various criteria.
+     * Identical concurrent searches share one remote call and results are reused for searchCacheTtlMs
      */
     public ConfluenceSearchResponseDTO searchPages(SearchRequestDTO searchRequest) throws IOException {
-        StringBuilder cqlBuilder = new StringBuilder();
+        String cql = buildCql(searchRequest);
+        SearchKey key = SearchKey.of(cql, searchRequest.getStart(), searchRequest.getLimit());
+        return contentCache.getSearch(key, () -> fetchSearch(cql, searchRequest));
+    }
+
+    private ConfluenceSearchResponseDTO fetchSearch(String cql, SearchRequestDTO searchRequest) throws IOException {
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content/search")
+                .encodedQuery("cql", cql)
+                .query("limit", searchRequest.getLimit())
+                .query("start", searchRequest.getStart())
+                .query("expand", ConfluenceRequestTemplate.EXPAND_PAGE)
+                .build();
+
+        log.info("Searching Confluence with CQL: {}", cql);
+
+        HttpGet request = template.get(url);
 
-        // Build CQL (Confluence Query Language) query
+        return execute("search_pages", request, jsonHandler(json.searchResults(), "Failed to search pages"));
+    }
+
+    /**
+     * Build the CQL (Confluence Query Language) query for a search request; shared with {@link ConfluenceAsyncService}.
+     * Labels are sorted so equivalent requests produce the same query (and search cache key)
+     */
+    static String buildCql(SearchRequestDTO searchRequest) {
         List<String> conditions = new ArrayList<>();
 
         if (searchRequest.getQuery() != null && !searchRequest.getQuery().isEmpty()) {
@@ -60,62 +116,47 @@ public class ConfluenceService {
 
         if (searchRequest.getLabels() != null && !searchRequest.getLabels().isEmpty()) {
             String labelConditions = searchRequest.getLabels().stream()
+                    .sorted()
                     .map(label -> String.format("label = \"%s\"", label))
                     .collect(Collectors.joining(" AND "));
             conditions.add("(" + labelConditions + ")");
         }
 
-        String cql = String.join(" AND ", conditions);
-
-        String url = String.format("%s%s/content/search?cql=%s&limit=%d&start=%d&expand=body.storage,version,space",
-                properties.getBaseUrl(),
-                API_PATH,
-                encodeValue(cql),
-                searchRequest.getLimit(),
-                searchRequest.getStart());
-
-        log.info("Searching Confluence with CQL: {}", cql);
-
-        HttpGet request = new HttpGet(url);
-        addAuthHeader(request);
-
-        return httpClient.execute(request, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
-            log.debug("Search response: {}", responseBody);
-
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                return objectMapper.readValue(responseBody, ConfluenceSearchResponseDTO.class);
-            } else {
-                log.error("Search failed with status {}: {}", response.getCode(), responseBody);
-                throw new IOException("Failed to search pages: " + response.getCode());
-            }
-        });
+        return String.join(" AND ", conditions);
     }
 
     /**
      * Get a specific page by ID
      */
     public ConfluencePageDTO getPageById(String pageId) throws IOException {
-        String url = String.format("%s%s/content/%s?expand=body.storage,version,space",
-                properties.getBaseUrl(),
-                API_PATH,
-                pageId);
+        return contentCache.getPage(pageId, () -> fetchPage(pageId), () -> fetchPageVersion(pageId));
+    }
+
+    private ConfluencePageDTO fetchPage(String pageId) throws IOException {
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content").path(pageId)
+                .query("expand", ConfluenceRequestTemplate.EXPAND_PAGE)
+                .build();
 
         log.info("Fetching page with ID: {}", pageId);
 
-        HttpGet request = new HttpGet(url);
-        addAuthHeader(request);
+        HttpGet request = template.get(url);
 
-        return httpClient.execute(request, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
+        return execute("get_page", request, jsonHandler(json.pages(), "Failed to get page"));
+    }
 
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                return objectMapper.readValue(responseBody, ConfluencePageDTO.class);
-            } else {
-                log.error("Failed to get page with status {}: {}", response.getCode(), responseBody);
-                throw new IOException("Failed to get page: " + response.getCode());
-            }
-        });
+    /**
+     * Current version number of a page, without its body; used to revalidate cached pages
+     */
+    private Integer fetchPageVersion(String pageId) throws IOException {
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content").path(pageId).query("expand", "version").build();
+
+        HttpGet request = template.get(url);
+
+        ConfluencePageDTO page = execute("get_page_version", request,
+                jsonHandler(json.pages(), "Failed to get page version"));
+        return page.getVersion() != null ? page.getVersion().getNumber() : null;
     }
 
     /**
@@ -125,95 +166,69 @@ public class ConfluenceService {
         String spaceKey = createRequest.getSpaceKey() != null ?
                 createRequest.getSpaceKey() : properties.getDefaultSpaceKey();
 
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("type", "page");
-        payload.put("title", createRequest.getTitle());
-
-        Map<String, String> space = new HashMap<>();
-        space.put("key", spaceKey);
-        payload.put("space", space);
-
-        Map<String, Object> body = new HashMap<>();
-        Map<String, String> storage = new HashMap<>();
-        storage.put("value", createRequest.getContent());
-        storage.put("representation", createRequest.getRepresentation());
-        body.put("storage", storage);
-        payload.put("body", body);
-
-        // Add parent page if specified
-        if (createRequest.getParentPageId() != null && !createRequest.getParentPageId().isEmpty()) {
-            List<Map<String, String>> ancestors = new ArrayList<>();
-            Map<String, String> parent = new HashMap<>();
-            parent.put("id", createRequest.getParentPageId());
-            ancestors.add(parent);
-            payload.put("ancestors", ancestors);
-        }
+        ContentPayload payload = ContentPayload.create(createRequest.getTitle(), spaceKey,
+                createRequest.getContent(), createRequest.getRepresentation(), createRequest.getParentPageId());
 
-        String url = String.format("%s%s/content", properties.getBaseUrl(), API_PATH);
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content").build();
 
         log.info("Creating page with title: {}", createRequest.getTitle());
 
-        HttpPost request = new HttpPost(url);
-        addAuthHeader(request);
-        request.setHeader("Content-Type", "application/json");
+        HttpPost request = template.post(url);
+        request.setEntity(json.entity(payload));
+
+        ConfluencePageDTO page = execute("create_page", request,
+                jsonHandler(json.pages(), "Failed to create page", true));
+        log.info("Page created successfully");
+        // conservative: a read of the parent right after our write never sees pre-write state
+        contentCache.invalidatePage(createRequest.getParentPageId());
+        contentCache.invalidateSearches();
+        mirrorWriter.pageWritten(page);
+        return page;
+    }
 
-        String jsonPayload = objectMapper.writeValueAsString(payload);
-        request.setEntity(new StringEntity(jsonPayload, ContentType.APPLICATION_JSON));
+    /**
+     * Create a page whose storage body is read from content (UTF-8) while the request is being sent,
+     * so the page is never held in memory. Not retried, as the stream can only be consumed once
+     */
+    public CreatedPage createPage(String title, String spaceKey, String parentPageId, InputStream content)
+            throws IOException {
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content").query("expand", "version").build();
 
-        return httpClient.execute(request, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
+        log.info("Creating page with streamed content, title: {}", title);
 
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                log.info("Page created successfully");
-                return objectMapper.readValue(responseBody, ConfluencePageDTO.class);
-            } else {
-                log.error("Failed to create page with status {}: {}", response.getCode(), responseBody);
-                throw new IOException("Failed to create page: " + response.getCode() + " - " + responseBody);
-            }
-        });
+        HttpPost request = template.post(url);
+        request.setEntity(json.streamingPage(title, spaceKey, parentPageId, content));
+
+        CreatedPage page = execute("create_page_stream", request,
+                jsonHandler(json.createdPages(), "Failed to create page"));
+        contentCache.invalidatePage(parentPageId);
+        contentCache.invalidateSearches();
+        return page;
     }
 
     /**
      * Update an existing page
      */
     public ConfluencePageDTO updatePage(String pageId, String title, String content, Integer currentVersion) throws IOException {
-        Map<String, Object> payload = new HashMap<>();
-        payload.put("type", "page");
-        payload.put("title", title);
-
-        Map<String, Object> body = new HashMap<>();
-        Map<String, String> storage = new HashMap<>();
-        storage.put("value", content);
-        storage.put("representation", "storage");
-        body.put("storage", storage);
-        payload.put("body", body);
+        ContentPayload payload = ContentPayload.update(title, content, currentVersion + 1);
 
-        Map<String, Object> version = new HashMap<>();
-        version.put("number", currentVersion + 1);
-        payload.put("version", version);
-
-        String url = String.format("%s%s/content/%s", properties.getBaseUrl(), API_PATH, pageId);
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/content").path(pageId).build();
 
         log.info("Updating page with ID: {}", pageId);
 
-        HttpPut request = new HttpPut(url);
-        addAuthHeader(request);
-        request.setHeader("Content-Type", "application/json");
-
-        String jsonPayload = objectMapper.writeValueAsString(payload);
-        request.setEntity(new StringEntity(jsonPayload, ContentType.APPLICATION_JSON));
-
-        return httpClient.execute(request, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
+        HttpPut request = template.put(url);
+        request.setEntity(json.entity(payload));
 
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                log.info("Page updated successfully");
-                return objectMapper.readValue(responseBody, ConfluencePageDTO.class);
-            } else {
-                log.error("Failed to update page with status {}: {}", response.getCode(), responseBody);
-                throw new IOException("Failed to update page: " + response.getCode() + " - " + responseBody);
-            }
-        });
+        ConfluencePageDTO page = execute("update_page", request,
+                jsonHandler(json.pages(), "Failed to update page", true));
+        log.info("Page updated successfully");
+        contentCache.invalidatePage(pageId);
+        contentCache.invalidateSearches();
+        mirrorWriter.pageWritten(page);
+        return page;
     }
 
     /**
@@ -249,154 +264,186 @@ public class ConfluenceService {
      * Upload multiple documents to Confluence in a folder structure
      * Creates a parent page (folder) and child pages (documents)
      */
-    public List<ConfluencePageDTO> uploadFilesToFolder(String folderName, List<Map<String, String>> documents) throws IOException {
+    public BulkUploadResponseDTO uploadFilesToFolder(String folderName, List<Map<String, String>> documents) throws IOException {
+        return uploadFilesToFolder(folderName, documents, doc -> { });
+    }
+
+    /**
+     * Same as {@link #uploadFilesToFolder(String, List)}, reporting each document to onDocument as it finishes
+     */
+    public BulkUploadResponseDTO uploadFilesToFolder(String folderName, List<Map<String, String>> documents,
+                                                     Consumer<BulkUploadResponseDTO.UploadedDocument> onDocument)
+            throws IOException {
         String spaceKey = properties.getDefaultSpaceKey();
 
         // Step 1: Create parent page (folder)
         log.info("Creating folder: {}", folderName);
-        Map<String, Object> folderPayload = new HashMap<>();
-        folderPayload.put("type", "page");
-        folderPayload.put("title", folderName);
-
-        Map<String, String> space = new HashMap<>();
-        space.put("key", spaceKey);
-        folderPayload.put("space", space);
-
-        Map<String, Object> body = new HashMap<>();
-        Map<String, String> storage = new HashMap<>();
-        storage.put("value", "<p>This folder contains uploaded documents.</p>");
-        storage.put("representation", "storage");
-        body.put("storage", storage);
-        folderPayload.put("body", body);
-
-        String folderUrl = String.format("%s%s/content", properties.getBaseUrl(), API_PATH);
-        HttpPost folderRequest = new HttpPost(folderUrl);
-        addAuthHeader(folderRequest);
-        folderRequest.setHeader("Content-Type", "application/json");
-
-        String folderJson = objectMapper.writeValueAsString(folderPayload);
-        folderRequest.setEntity(new StringEntity(folderJson, ContentType.APPLICATION_JSON));
-
-        ConfluencePageDTO folderPage = httpClient.execute(folderRequest, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                return objectMapper.readValue(responseBody, ConfluencePageDTO.class);
-            } else {
-                throw new IOException("Failed to create folder: " + response.getCode());
-            }
-        });
-
-        String folderId = folderPage.getId();
-        log.info("Folder created with ID: {}", folderId);
+        ConfluencePageDTO folderPage = createPage(CreatePageRequestDTO.builder()
+                .title(folderName)
+                .content("<p>This folder contains uploaded documents.</p>")
+                .spaceKey(spaceKey)
+                .build());
+        log.info("Folder created with ID: {}", folderPage.getId());
 
         // Step 2: Create child pages (documents)
-        List<ConfluencePageDTO> uploadedPages = new ArrayList<>();
-        uploadedPages.add(folderPage);
-
-        for (Map<String, String> doc : documents) {
-            String title = doc.get("title");
-            String content = doc.get("content");
-
-            log.info("Creating document: {}", title);
-
-            Map<String, Object> docPayload = new HashMap<>();
-            docPayload.put("type", "page");
-            docPayload.put("title", title);
-            docPayload.put("space", space);
-
-            Map<String, Object> docBody = new HashMap<>();
-            Map<String, String> docStorage = new HashMap<>();
-            docStorage.put("value", content);
-            docStorage.put("representation", "storage");
-            docBody.put("storage", docStorage);
-            docPayload.put("body", docBody);
-
-            // Set parent to folder
-            List<Map<String, String>> ancestors = new ArrayList<>();
-            Map<String, String> parent = new HashMap<>();
-            parent.put("id", folderId);
-            ancestors.add(parent);
-            docPayload.put("ancestors", ancestors);
-
-            String docUrl = String.format("%s%s/content", properties.getBaseUrl(), API_PATH);
-            HttpPost docRequest = new HttpPost(docUrl);
-            addAuthHeader(docRequest);
-            docRequest.setHeader("Content-Type", "application/json");
-
-            String docJson = objectMapper.writeValueAsString(docPayload);
-            docRequest.setEntity(new StringEntity(docJson, ContentType.APPLICATION_JSON));
-
-            ConfluencePageDTO createdDoc = httpClient.execute(docRequest, response -> {
-                String responseBody = EntityUtils.toString(response.getEntity());
-                if (response.getCode() >= 200 && response.getCode() < 300) {
-                    return objectMapper.readValue(responseBody, ConfluencePageDTO.class);
-                } else {
-                    log.error("Failed to create document: {}", responseBody);
-                    throw new IOException("Failed to create document: " + response.getCode());
-                }
-            });
+        List<CreatePageRequestDTO> docRequests = documents.stream()
+                .map(doc -> CreatePageRequestDTO.builder()
+                        .title(doc.get("title"))
+                        .content(doc.get("content"))
+                        .spaceKey(spaceKey)
+                        .parentPageId(folderPage.getId())
+                        .build())
+                .toList();
+
+        List<BulkUploadResponseDTO.UploadedDocument> uploadedDocs = createChildPages(docRequests, onDocument);
+
+        log.info("Uploaded {}/{} documents to folder '{}'",
+                uploadedDocs.stream().filter(BulkUploadResponseDTO.UploadedDocument::isSuccess).count(),
+                documents.size(), folderName);
+
+        return BulkUploadResponseDTO.builder()
+                .folderName(folderPage.getTitle())
+                .folderPageId(folderPage.getId())
+                .folderUrl(templates.current().link(folderPage.getLinks().getWebui()))
+                .documents(uploadedDocs)
+                .build();
+    }
+
+    @FunctionalInterface
+    public interface ContentSource {
+        InputStream open() throws IOException;
+    }
 
-            uploadedPages.add(createdDoc);
+    /**
+     * A document whose content is opened only when it is uploaded
+     */
+    public record StreamedDocument(String title, ContentSource content) {
+    }
+
+    /**
+     * Same as {@link #uploadFilesToFolder(String, List)}, but each document's content is streamed
+     * into its create request one document at a time, so heap use does not grow with document size
+     */
+    public BulkUploadResponseDTO uploadStreamsToFolder(String folderName, List<StreamedDocument> documents)
+            throws IOException {
+        String spaceKey = properties.getDefaultSpaceKey();
+
+        log.info("Creating folder: {}", folderName);
+        ConfluencePageDTO folderPage = createPage(CreatePageRequestDTO.builder()
+                .title(folderName)
+                .content("<p>This folder contains uploaded documents.</p>")
+                .spaceKey(spaceKey)
+                .build());
+
+        ConfluenceRequestTemplate template = templates.current();
+        List<BulkUploadResponseDTO.UploadedDocument> uploadedDocs = new ArrayList<>(documents.size());
+        for (StreamedDocument document : documents) {
+            try (InputStream content = document.content().open()) {
+                CreatedPage page = createPage(document.title(), spaceKey, folderPage.getId(), content);
+                uploadedDocs.add(BulkUploadResponseDTO.UploadedDocument.builder()
+                        .title(page.title())
+                        .pageId(page.id())
+                        .url(page.links() != null ? template.link(page.links().webui()) : null)
+                        .success(true)
+                        .build());
+            } catch (IOException e) {
+                log.error("Failed to create document '{}': {}", document.title(), e.getMessage());
+                uploadedDocs.add(BulkUploadResponseDTO.UploadedDocument.builder()
+                        .title(document.title())
+                        .success(false)
+                        .error(e.getMessage())
+                        .build());
+            }
         }
 
-        log.info("Successfully uploaded {} documents to folder '{}'", documents.size(), folderName);
-        return uploadedPages;
+        log.info("Uploaded {}/{} streamed documents to folder '{}'",
+                uploadedDocs.stream().filter(BulkUploadResponseDTO.UploadedDocument::isSuccess).count(),
+                documents.size(), folderName);
+
+        return BulkUploadResponseDTO.builder()
+                .folderName(folderPage.getTitle())
+                .folderPageId(folderPage.getId())
+                .folderUrl(template.link(folderPage.getLinks().getWebui()))
+                .documents(uploadedDocs)
+                .build();
     }
 
     /**
      * Get all files from Confluence (all pages in the default space)
      */
-    public List<Map<String, Object>> getAllFiles() throws IOException {
+    public List<GetAllFilesResponseDTO.FileDTO> getAllFiles() throws IOException {
+        List<GetAllFilesResponseDTO.FileDTO> files = new ArrayList<>();
+        forEachFile(files::add);
+        return files;
+    }
+
+    /**
+     * Stream every file in the default space to consumer, following Confluence pagination
+     *
+     * @return number of files visited
+     */
+    public int forEachFile(Consumer<GetAllFilesResponseDTO.FileDTO> consumer) throws IOException {
         String spaceKey = properties.getDefaultSpaceKey();
-        String url = String.format("%s%s/content?spaceKey=%s&limit=500&expand=body.storage,version",
-                properties.getBaseUrl(),
-                API_PATH,
-                spaceKey);
+        String url = templates.current().api("/content")
+                .encodedQuery("spaceKey", spaceKey)
+                .query("limit", LISTING_PAGE_SIZE)
+                .query("expand", "body.storage,version")
+                .build();
 
         log.info("Fetching all files from space: {}", spaceKey);
 
-        HttpGet request = new HttpGet(url);
-        addAuthHeader(request);
+        return forEachContent("get_all_files", url, page -> consumer.accept(toFile(page)));
+    }
 
-        return httpClient.execute(request, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
+    private GetAllFilesResponseDTO.FileDTO toFile(ConfluencePageDTO page) {
+        return GetAllFilesResponseDTO.FileDTO.builder()
+                .id(page.getId())
+                .title(page.getTitle())
+                .content(page.getBody() != null && page.getBody().getStorage() != null
+                        ? page.getBody().getStorage().getValue() : null)
+                .url(page.getLinks() != null ? templates.current().link(page.getLinks().getWebui()) : null)
+                .build();
+    }
 
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                Map<String, Object> result = objectMapper.readValue(responseBody, Map.class);
-                List<Map<String, Object>> pages = (List<Map<String, Object>>) result.get("results");
-
-                // Transform to simpler format
-                List<Map<String, Object>> files = new ArrayList<>();
-                for (Map<String, Object> page : pages) {
-                    Map<String, Object> file = new HashMap<>();
-                    file.put("id", page.get("id"));
-                    file.put("title", page.get("title"));
-
-                    Map<String, Object> bodyMap = (Map<String, Object>) page.get("body");
-                    if (bodyMap != null && bodyMap.containsKey("storage")) {
-                        Map<String, Object> storage = (Map<String, Object>) bodyMap.get("storage");
-                        file.put("content", storage.get("value"));
-                    }
+    /**
+     * Execute a Confluence call through the resilience layer (bulkhead, circuit breaker, and retries
+     * for GETs), timed end to end under confluence.requests{operation, outcome}
+     */
+    private <T> T execute(String operation, ClassicHttpRequest request,
+                          HttpClientResponseHandler<? extends T> responseHandler) throws IOException {
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.FAILURE;
+        try {
+            boolean idempotent = "GET".equals(request.getMethod());
+            T result = resilience.execute(operation, idempotent, () -> httpClient.execute(request, responseHandler));
+            outcome = AuthMetrics.SUCCESS;
+            return result;
+        } finally {
+            authMetrics.stop(sample, AuthMetrics.CONFLUENCE_REQUESTS, operation, outcome);
+        }
+    }
 
-                    Map<String, Object> links = (Map<String, Object>) page.get("_links");
-                    if (links != null) {
-                        file.put("url", properties.getBaseUrl() + links.get("webui"));
-                    }
+    private <T> HttpClientResponseHandler<T> jsonHandler(ObjectReader reader, String failureMessage) {
+        return jsonHandler(reader, failureMessage, false);
+    }
 
-                    files.add(file);
+    /**
+     * Bind a 2xx body straight from the entity stream with the given reader; anything else is
+     * buffered for the log and raised as an IOException (with the body appended when includeBody)
+     */
+    private <T> HttpClientResponseHandler<T> jsonHandler(ObjectReader reader, String failureMessage,
+                                                         boolean includeBody) {
+        return response -> {
+            if (response.getCode() >= 200 && response.getCode() < 300) {
+                try (InputStream content = response.getEntity().getContent()) {
+                    return reader.readValue(content);
                 }
-
-                return files;
-            } else {
-                throw new IOException("Failed to get files: " + response.getCode());
             }
-        });
-    }
-
-    private void addAuthHeader(org.apache.hc.core5.http.HttpRequest request) {
-        String auth = properties.getUsername() + ":" + properties.getApiToken();
-        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
-        request.setHeader("Authorization", "Basic " + encodedAuth);
+            String responseBody = EntityUtils.toString(response.getEntity());
+            log.error("{} with status {}: {}", failureMessage, response.getCode(), responseBody);
+            throw ConfluenceApiException.of(response, failureMessage + ": " + response.getCode()
+                    + (includeBody ? " - " + responseBody : ""));
+        };
     }
 
     /**
@@ -417,121 +464,331 @@ public class ConfluenceService {
         log.info("Created folder page: {} with ID: {}", folderPage.getTitle(), folderPage.getId());
 
         // Step 2: Upload all documents under the folder
-        List<BulkUploadResponseDTO.UploadedDocument> uploadedDocs = new ArrayList<>();
-
-        for (BulkUploadRequestDTO.DocumentDTO doc : request.getDocuments()) {
-            CreatePageRequestDTO docRequest = CreatePageRequestDTO.builder()
-                    .title(doc.getTitle())
-                    .content(doc.getContent())
-                    .spaceKey(spaceKey)
-                    .parentPageId(folderPage.getId()) // Set folder as parent
-                    .build();
-
-            ConfluencePageDTO uploadedPage = createPage(docRequest);
-
-            uploadedDocs.add(BulkUploadResponseDTO.UploadedDocument.builder()
-                    .title(uploadedPage.getTitle())
-                    .pageId(uploadedPage.getId())
-                    .url(properties.getBaseUrl() + uploadedPage.getLinks().getWebui())
-                    .build());
+        List<CreatePageRequestDTO> docRequests = request.getDocuments().stream()
+                .map(doc -> CreatePageRequestDTO.builder()
+                        .title(doc.getTitle())
+                        .content(doc.getContent())
+                        .spaceKey(spaceKey)
+                        .parentPageId(folderPage.getId()) // Set folder as parent
+                        .build())
+                .toList();
 
-            log.info("Uploaded document: {} under folder: {}", uploadedPage.getTitle(), folderPage.getTitle());
-        }
+        List<BulkUploadResponseDTO.UploadedDocument> uploadedDocs = createChildPages(docRequests, doc -> { });
 
         return BulkUploadResponseDTO.builder()
                 .folderName(folderPage.getTitle())
                 .folderPageId(folderPage.getId())
-                .folderUrl(properties.getBaseUrl() + folderPage.getLinks().getWebui())
+                .folderUrl(templates.current().link(folderPage.getLinks().getWebui()))
                 .documents(uploadedDocs)
                 .build();
     }
 
     /**
-     * Get all documents (pages) from Confluence
+     * Create child pages on {@link ConfluenceAsyncService}, which bounds how many are in flight at once
+     * without a thread per request. Results keep the input order; a failed document is reported in its
+     * slot instead of aborting the batch.
+     */
+    private List<BulkUploadResponseDTO.UploadedDocument> createChildPages(
+            List<CreatePageRequestDTO> docRequests,
+            Consumer<BulkUploadResponseDTO.UploadedDocument> onDocument) throws IOException {
+        try {
+            return asyncService.createPages(docRequests, onDocument).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while uploading documents", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to upload documents", e.getCause());
+        }
+    }
+
+    /**
+     * Get all documents (pages) from Confluence.
+     * pageSize is the per-request page size; every page is followed, so results are complete
      */
-    public List<Map<String, Object>> getAllDocuments(Integer limit) throws IOException {
-        String url = String.format("%s%s/content?limit=%d&expand=body.storage,version,space",
-                properties.getBaseUrl(),
-                API_PATH,
-                limit != null ? limit : 100);
+    public List<ConfluencePageDTO> getAllDocuments(Integer pageSize) throws IOException {
+        List<ConfluencePageDTO> documents = new ArrayList<>();
+        forEachDocument(pageSize, documents::add);
+        return documents;
+    }
+
+    /**
+     * Stream every document (page) to consumer, following Confluence pagination
+     *
+     * @return number of documents visited
+     */
+    public int forEachDocument(Integer pageSize, Consumer<ConfluencePageDTO> consumer) throws IOException {
+        String url = templates.current().api("/content")
+                .query("limit", pageSize != null ? pageSize : 100)
+                .query("expand", ConfluenceRequestTemplate.EXPAND_PAGE)
+                .build();
 
         log.info("Fetching all documents");
 
-        HttpGet request = new HttpGet(url);
-        addAuthHeader(request);
+        return forEachContent("get_all_documents", url, consumer);
+    }
 
-        return httpClient.execute(request, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
+    /**
+     * Stream every page modified at or after since, oldest first.
+     * The walk is keyset-paged on lastmodified: each request asks again for pages modified at or after the
+     * newest one seen so far instead of following the offset in _links.next, since a page edited during
+     * the walk moves to the end of the order and would shift an offset past unread pages. Only a result
+     * page entirely within one minute, where the cursor cannot advance, is continued by offset.
+     * CQL dates have minute precision and are read in the given zone, so the same page may be visited
+     * more than once; callers should keep an overlap and treat results as upserts
+     *
+     * @param spaceKeys spaces to include; empty for all
+     * @return number of pages visited
+     */
+    public int forEachPageModifiedSince(Instant since, ZoneId cqlZone, List<String> spaceKeys, int pageSize,
+                                        Consumer<ConfluencePageDTO> consumer) throws IOException {
+        int total = 0;
+        String cursor = since != null ? CQL_DATE.format(since.atZone(cqlZone)) : null;
+        ConfluenceRequestTemplate template = templates.current();
+        String url = modifiedSinceUrl(template, spaceKeys, cursor, pageSize);
+
+        while (url != null) {
+            ContentPage page = fetchContentPage("sync_modified_pages", template, url);
+            page.results().forEach(consumer);
+            total += page.results().size();
+            if (page.next() == null) {
+                break;
+            }
 
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                Map<String, Object> result = objectMapper.readValue(responseBody, Map.class);
-                return (List<Map<String, Object>>) result.get("results");
+            String newest = newestModified(page.results(), cqlZone);
+            if (newest != null && (cursor == null || newest.compareTo(cursor) > 0)) {
+                cursor = newest;
+                template = templates.current();
+                url = modifiedSinceUrl(template, spaceKeys, cursor, pageSize);
             } else {
-                log.error("Failed to get documents with status {}: {}", response.getCode(), responseBody);
-                throw new IOException("Failed to get documents: " + response.getCode());
+                url = template.link(page.next());
             }
-        });
+        }
+
+        return total;
+    }
+
+    private String modifiedSinceUrl(ConfluenceRequestTemplate template, List<String> spaceKeys, String since,
+                                    int pageSize) {
+        StringBuilder cql = new StringBuilder("type = page");
+        if (spaceKeys != null && !spaceKeys.isEmpty()) {
+            cql.append(spaceKeys.stream()
+                    .map(key -> "\"" + key + "\"")
+                    .collect(Collectors.joining(", ", " AND space in (", ")")));
+        }
+        if (since != null) {
+            cql.append(" AND lastmodified >= \"").append(since).append('"');
+        }
+        cql.append(" order by lastmodified asc");
+
+        log.debug("Fetching pages modified since {} with CQL: {}", since, cql);
+
+        return template.api("/content/search")
+                .encodedQuery("cql", cql.toString())
+                .query("limit", pageSize)
+                .query("expand", ConfluenceRequestTemplate.EXPAND_PAGE)
+                .build();
     }
 
     /**
-     * Get all spaces
+     * Stream every current page in spaceKey (all spaces when null) with only its id and space, in ascending
+     * id order. Keyset-paged on id like {@link #forEachPageModifiedSince}, so pages created or deleted
+     * during the walk do not shift it; trashed pages are not listed
+     *
+     * @return number of pages visited
      */
-    public List<Map<String, Object>> getAllSpaces(Integer limit) throws IOException {
-        String url = String.format("%s%s/space?limit=%d&expand=description.plain,homepage",
-                properties.getBaseUrl(),
-                API_PATH,
-                limit != null ? limit : 100);
+    public int forEachPageId(String spaceKey, int pageSize, Consumer<ConfluencePageDTO> consumer) throws IOException {
+        int total = 0;
+        long afterId = 0;
+
+        while (true) {
+            ConfluenceRequestTemplate template = templates.current();
+            ContentPage page = fetchContentPage("list_page_ids", template,
+                    pageIdsUrl(template, spaceKey, afterId, pageSize));
+            page.results().forEach(consumer);
+            total += page.results().size();
+            if (page.next() == null || page.results().isEmpty()) {
+                return total;
+            }
+            for (ConfluencePageDTO result : page.results()) {
+                afterId = Math.max(afterId, Long.parseLong(result.getId()));
+            }
+        }
+    }
 
-        log.info("Fetching all spaces");
+    private String pageIdsUrl(ConfluenceRequestTemplate template, String spaceKey, long afterId, int pageSize) {
+        StringBuilder cql = new StringBuilder("type = page");
+        if (spaceKey != null) {
+            cql.append(" AND space = \"").append(spaceKey).append('"');
+        }
+        cql.append(" AND id > ").append(afterId).append(" order by id asc");
 
-        HttpGet request = new HttpGet(url);
-        addAuthHeader(request);
+        return template.api("/content/search")
+                .encodedQuery("cql", cql.toString())
+                .query("limit", pageSize)
+                .query("expand", "space")
+                .build();
+    }
 
-        return httpClient.execute(request, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
+    /**
+     * Stream the given pages with their bodies, ID_BATCH_SIZE ids per request. Pages that no longer
+     * exist are skipped
+     *
+     * @return number of pages visited
+     */
+    public int forEachPageById(List<String> pageIds, Consumer<ConfluencePageDTO> consumer) throws IOException {
+        int total = 0;
+        for (int from = 0; from < pageIds.size(); from += ID_BATCH_SIZE) {
+            List<String> chunk = pageIds.subList(from, Math.min(from + ID_BATCH_SIZE, pageIds.size()));
+            String url = templates.current().api("/content/search")
+                    .encodedQuery("cql", chunk.stream().collect(Collectors.joining(", ", "id in (", ")")))
+                    .query("limit", chunk.size())
+                    .query("expand", ConfluenceRequestTemplate.EXPAND_PAGE)
+                    .build();
+            total += forEachContent("get_pages_by_id", url, consumer);
+        }
+        return total;
+    }
 
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                Map<String, Object> result = objectMapper.readValue(responseBody, Map.class);
-                return (List<Map<String, Object>>) result.get("results");
-            } else {
-                log.error("Failed to get spaces with status {}: {}", response.getCode(), responseBody);
-                throw new IOException("Failed to get spaces: " + response.getCode());
+    /**
+     * Latest version.when among pages, as a CQL date in cqlZone; null if none could be read.
+     * CQL_DATE strings sort chronologically
+     */
+    private static String newestModified(List<ConfluencePageDTO> pages, ZoneId cqlZone) {
+        String newest = null;
+        for (ConfluencePageDTO page : pages) {
+            if (page.getVersion() == null || page.getVersion().getWhen() == null) {
+                continue;
             }
-        });
+            try {
+                String modified = CQL_DATE.format(OffsetDateTime.parse(page.getVersion().getWhen())
+                        .atZoneSameInstant(cqlZone));
+                if (newest == null || modified.compareTo(newest) > 0) {
+                    newest = modified;
+                }
+            } catch (DateTimeParseException e) {
+                // unparseable timestamp: this page does not move the cursor
+            }
+        }
+        return newest;
     }
 
     /**
-     * Get a specific space by key
+     * Walk a content listing page by page, following _links.next until the last page.
+     * Each response is parsed with the streaming API straight from the entity InputStream, so at most
+     * one listing page of results is materialized at once. The page is bound completely before any of
+     * it reaches the consumer: a retried request then never hands the consumer the same result twice,
+     * and time spent in a slow consumer is not counted against the circuit breaker.
      */
-    public Map<String, Object> getSpaceByKey(String spaceKey) throws IOException {
-        String url = String.format("%s%s/space/%s?expand=description.plain,homepage",
-                properties.getBaseUrl(),
-                API_PATH,
-                spaceKey);
+    private int forEachContent(String operation, String firstUrl, Consumer<ConfluencePageDTO> consumer)
+            throws IOException {
+        int total = 0;
+        String url = firstUrl;
+
+        while (url != null) {
+            ConfluenceRequestTemplate template = templates.current();
+            ContentPage page = fetchContentPage(operation, template, url);
+
+            page.results().forEach(consumer);
+            total += page.results().size();
+            url = page.next() != null ? template.link(page.next()) : null;
+        }
 
-        log.info("Fetching space with key: {}", spaceKey);
+        return total;
+    }
+
+    private ContentPage fetchContentPage(String operation, ConfluenceRequestTemplate template, String url)
+            throws IOException {
+        HttpGet request = template.get(url);
+        return execute(operation, request, response -> {
+            if (response.getCode() < 200 || response.getCode() >= 300) {
+                String responseBody = EntityUtils.toString(response.getEntity());
+                log.error("Failed to list content with status {}: {}", response.getCode(), responseBody);
+                throw ConfluenceApiException.of(response, "Failed to list content: " + response.getCode());
+            }
+            try (InputStream content = response.getEntity().getContent();
+                 JsonParser parser = json.parser(content)) {
+                return readContentPage(parser);
+            }
+        });
+    }
 
-        HttpGet request = new HttpGet(url);
-        addAuthHeader(request);
+    private ContentPage readContentPage(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Unexpected Confluence content listing");
+        }
 
-        return httpClient.execute(request, response -> {
-            String responseBody = EntityUtils.toString(response.getEntity());
+        List<ConfluencePageDTO> results = new ArrayList<>();
+        String next = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
 
-            if (response.getCode() >= 200 && response.getCode() < 300) {
-                return objectMapper.readValue(responseBody, Map.class);
+            if ("results".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    results.add(json.pages().readValue(parser));
+                }
+            } else if ("_links".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String link = parser.currentName();
+                    parser.nextToken();
+                    if ("next".equals(link)) {
+                        next = parser.getValueAsString();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
             } else {
-                log.error("Failed to get space with status {}: {}", response.getCode(), responseBody);
-                throw new IOException("Failed to get space: " + response.getCode());
+                parser.skipChildren();
             }
-        });
+        }
+
+        return new ContentPage(results, next);
     }
 
-    private String encodeValue(String value) {
-        try {
-            return java.net.URLEncoder.encode(value, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            return value;
-        }
+    private record ContentPage(List<ConfluencePageDTO> results, String next) {
     }
-}
 
+    /**
+     * Get all spaces
+     */
+    public List<ConfluenceSpaceDTO> getAllSpaces(Integer limit) throws IOException {
+        int effectiveLimit = limit != null ? limit : 100;
+        return contentCache.getSpaces("all:" + effectiveLimit, () -> fetchAllSpaces(effectiveLimit));
+    }
+
+    private List<ConfluenceSpaceDTO> fetchAllSpaces(int limit) throws IOException {
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/space")
+                .query("limit", limit)
+                .query("expand", ConfluenceRequestTemplate.EXPAND_SPACE)
+                .build();
+
+        log.info("Fetching all spaces");
+
+        HttpGet request = template.get(url);
+
+        ConfluenceSpaceDTO.Page page = execute("get_spaces", request,
+                jsonHandler(json.spacePages(), "Failed to get spaces"));
+        return page.results() != null ? List.copyOf(page.results()) : List.of();
+    }
+
+    /**
+     * Get a specific space by key
+     */
+    public ConfluenceSpaceDTO getSpaceByKey(String spaceKey) throws IOException {
+        return contentCache.getSpaces("key:" + spaceKey, () -> fetchSpaceByKey(spaceKey));
+    }
+
+    private ConfluenceSpaceDTO fetchSpaceByKey(String spaceKey) throws IOException {
+        ConfluenceRequestTemplate template = templates.current();
+        String url = template.api("/space").path(spaceKey)
+                .query("expand", ConfluenceRequestTemplate.EXPAND_SPACE)
+                .build();
+
+        log.info("Fetching space with key: {}", spaceKey);
+
+        HttpGet request = template.get(url);
+
+        return execute("get_space", request, jsonHandler(json.spaces(), "Failed to get space"));
+    }
+}
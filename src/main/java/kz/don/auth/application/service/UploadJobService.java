@@ -0,0 +1,153 @@
+package kz.don.auth.application.service;
+
+import jakarta.annotation.PreDestroy;
+import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.domain.enums.UploadJobStatusEnum;
+import kz.don.auth.web.dto.response.BulkUploadResponseDTO;
+import kz.don.auth.web.dto.response.UploadJobResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs Django folder uploads in the background so the HTTP request returns immediately.
+ * Running jobs are always kept; finished jobs are retained up to uploadJobRetention, oldest evicted first.
+ */
+@Slf4j
+@Service
+public class UploadJobService {
+
+    private final ConfluenceService confluenceService;
+    private final ThreadPoolExecutor executor;
+    private final int retention;
+    private final Map<UUID, UploadJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<UUID> finishedJobs = new ConcurrentLinkedQueue<>();
+
+    public UploadJobService(ConfluenceService confluenceService, ConfluenceProperties properties) {
+        this.confluenceService = confluenceService;
+        this.retention = properties.getUploadJobRetention();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getUploadJobWorkers(),
+                properties.getUploadJobWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getUploadJobQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upload-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queue an upload job
+     *
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public UploadJobResponse submit(String folderName, List<Map<String, String>> documents) {
+        UploadJob job = new UploadJob(UUID.randomUUID(), folderName, documents.size());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, documents));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+        log.info("Queued upload job {} for folder '{}' with {} documents", job.id, folderName, documents.size());
+        return toResponse(job);
+    }
+
+    public Optional<UploadJobResponse> getJob(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(this::toResponse);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(UploadJob job, List<Map<String, String>> documents) {
+        job.status = UploadJobStatusEnum.RUNNING;
+        try {
+            BulkUploadResponseDTO result = confluenceService.uploadFilesToFolder(job.folderName, documents, doc -> {
+                if (doc.isSuccess()) {
+                    job.completed.incrementAndGet();
+                } else {
+                    job.failed.incrementAndGet();
+                }
+            });
+            job.result = result;
+            job.status = job.failed.get() == 0
+                    ? UploadJobStatusEnum.COMPLETED
+                    : UploadJobStatusEnum.COMPLETED_WITH_ERRORS;
+            log.info("Upload job {} finished: {} uploaded, {} failed", job.id, job.completed.get(), job.failed.get());
+        } catch (Exception e) {
+            log.error("Upload job {} failed", job.id, e);
+            job.error = e.getMessage();
+            job.status = UploadJobStatusEnum.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            retire(job.id);
+        }
+    }
+
+    private void retire(UUID jobId) {
+        finishedJobs.add(jobId);
+        while (finishedJobs.size() > retention) {
+            UUID evicted = finishedJobs.poll();
+            if (evicted != null) {
+                jobs.remove(evicted);
+            }
+        }
+    }
+
+    private UploadJobResponse toResponse(UploadJob job) {
+        BulkUploadResponseDTO result = job.result;
+        return UploadJobResponse.builder()
+                .jobId(job.id)
+                .status(job.status)
+                .folderName(job.folderName)
+                .totalDocuments(job.total)
+                .completedDocuments(job.completed.get())
+                .failedDocuments(job.failed.get())
+                .submittedAt(job.submittedAt)
+                .finishedAt(job.finishedAt)
+                .folderId(result != null ? result.getFolderPageId() : null)
+                .folderUrl(result != null ? result.getFolderUrl() : null)
+                .documents(result != null ? result.getDocuments() : null)
+                .error(job.error)
+                .build();
+    }
+
+    private static final class UploadJob {
+        private final UUID id;
+        private final String folderName;
+        private final int total;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile UploadJobStatusEnum status = UploadJobStatusEnum.QUEUED;
+        private volatile Instant finishedAt;
+        private volatile BulkUploadResponseDTO result;
+        private volatile String error;
+
+        private UploadJob(UUID id, String folderName, int total) {
+            this.id = id;
+            this.folderName = folderName;
+            this.total = total;
+        }
+    }
+}
@@ -3,10 +3,16 @@ package kz.don.auth.application.service;
 import kz.don.auth.domain.entity.User;
 import kz.don.auth.domain.repository.UserAuditRepository;
 import kz.don.auth.envers.AuditEnversInfo;
+import kz.don.auth.web.dto.response.KeysetPageResponse;
+import kz.don.auth.web.dto.response.UserRevisionResponse;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.envers.RevisionType;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.sql.Date;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,20 +20,69 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class UserAuditService {
 
-    private final UserAuditRepository userAuditRepository;
+    private static final int MAX_PAGE_SIZE = 200;
 
-    public void displayUserAuditHistory(UUID userId) {
-        List<Object[]> revisions = userAuditRepository.getUserRevisionsWithOperation(userId);
+    private final UserAuditRepository userAuditRepository;
 
-        for (Object[] revision : revisions) {
-            User user = (User) revision[0];
-            AuditEnversInfo revisionInfo = (AuditEnversInfo) revision[1];
-            org.hibernate.envers.RevisionType revisionType = (org.hibernate.envers.RevisionType) revision[2];
+    /**
+     * Revision history of a user, newest first.
+     * cursor is the revision number returned as nextCursor by the previous page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageResponse<UserRevisionResponse> getUserRevisionHistory(UUID userId, Integer cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<Object[]> rows = userAuditRepository.findUserRevisions(userId, cursor, limit + 1);
+        return toPage(rows, limit);
+    }
 
-            System.out.println("Operation: " + revisionType +
-                    ", User: " + revisionInfo.getUsername() +
-                    ", IP: " + revisionInfo.getIpAddress() +
-                    ", Timestamp: " + new Date(revisionInfo.getTimestamp()));
+    /**
+     * Revisions of all users with the given operation (INSERT, UPDATE, DELETE), newest first
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageResponse<UserRevisionResponse> getRevisionsByOperationType(
+            String operationType, Integer cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        try {
+            List<Object[]> rows = userAuditRepository.findRevisionsByOperationType(operationType, cursor, limit + 1);
+            return toPage(rows, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
     }
+
+    private KeysetPageResponse<UserRevisionResponse> toPage(List<Object[]> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<UserRevisionResponse> items = rows.stream()
+                .limit(limit)
+                .map(this::mapToResponse)
+                .toList();
+
+        return KeysetPageResponse.<UserRevisionResponse>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? String.valueOf(items.get(items.size() - 1).getRevision()) : null)
+                .build();
+    }
+
+    private UserRevisionResponse mapToResponse(Object[] revision) {
+        User user = (User) revision[0];
+        AuditEnversInfo revisionInfo = (AuditEnversInfo) revision[1];
+        RevisionType revisionType = (RevisionType) revision[2];
+
+        return UserRevisionResponse.builder()
+                .revision(revisionInfo.getId())
+                .revisionType(revisionInfo.getRevisionTypeAsString(revisionType))
+                .revisionTimestamp(revisionInfo.getTimestamp() != null
+                        ? Instant.ofEpochMilli(revisionInfo.getTimestamp()) : null)
+                .changedBy(revisionInfo.getUsername())
+                .ipAddress(revisionInfo.getIpAddress())
+                .httpMethod(revisionInfo.getOperationType())
+                .userId(user.getId())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .role(user.getRole() != null ? user.getRole().name() : null)
+                .enabled(user.isEnabled())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
 }
@@ -0,0 +1,637 @@
+package kz.don.auth.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kz.don.auth.domain.enums.RoleEnum;
+import kz.don.auth.domain.enums.UserImportStatusEnum;
+import kz.don.auth.envers.AuditRevisions;
+import kz.don.auth.infrastructure.messaging.TokenAuditEventWriter;
+import kz.don.auth.infrastructure.security.jwt.TokenEpochRefresher;
+import kz.don.auth.web.dto.request.BulkUserStatusRequest;
+import kz.don.auth.web.dto.request.RegisterRequest;
+import kz.don.auth.web.dto.response.BulkUserStatusResponse;
+import kz.don.auth.web.dto.response.UserImportResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based user administration for onboarding and offboarding whole organizations.
+ * Writes go through JDBC batches instead of per-entity saves, so Envers is bypassed; each chunk
+ * records its own revision in audit_envers_info and the matching users_aud rows itself.
+ */
+@Slf4j
+@Service
+public class UserBulkService {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String EXISTING_EMAILS_SQL = "SELECT email FROM users WHERE email = ANY(?)";
+    private static final String PRESENT_IDS_SQL = "SELECT id FROM users WHERE id = ANY(?)";
+    private static final String INSERT_USER_SQL = "INSERT INTO users " +
+            "(id, email, full_name, password, role, enabled, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (email) DO NOTHING";
+    private static final String INSERT_USER_AUD_SQL = "INSERT INTO users_aud " +
+            "(id, rev, revtype, email, full_name, password, role, enabled, created_at, updated_at, token_epoch) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    // one statement per chunk: flip the users that are not already in the target state (advancing
+    // the token epoch of those being disabled) and write their post-update rows to users_aud under
+    // the chunk's revision
+    private static final String UPDATE_STATUS_SQL = "WITH changed AS (" +
+            "UPDATE users SET enabled = ?, updated_at = ?, " +
+            "token_epoch = CASE WHEN ? THEN token_epoch ELSE token_epoch + 1 END " +
+            "WHERE id = ANY(?) AND enabled <> ? " +
+            "RETURNING id, email, full_name, password, role, enabled, created_at, updated_at, token_epoch), " +
+            "audited AS (INSERT INTO users_aud " +
+            "(id, rev, revtype, email, full_name, password, role, enabled, created_at, updated_at, token_epoch) " +
+            "SELECT id, ?, ?, email, full_name, password, role, enabled, created_at, updated_at, token_epoch " +
+            "FROM changed) " +
+            "SELECT id, token_epoch FROM changed";
+    private static final String REVOKE_TOKENS_SQL =
+            "DELETE FROM refresh_tokens WHERE user_id = ANY(?) RETURNING id, user_id";
+
+    // Envers revtype values
+
+    private static final int LOOKUP_CHUNK_SIZE = 5000;
+    private static final int HASH_SLICE_SIZE = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditRevisions auditRevisions;
+    private final TokenAuditEventWriter tokenAuditEventWriter;
+    private final TokenEpochRefresher tokenEpochRefresher;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectReader rowReader;
+    private final ExecutorService hashExecutor;
+    private final int batchSize;
+    private final int maxRows;
+    private final int statusChunkSize;
+
+    public UserBulkService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            AuditRevisions auditRevisions,
+            TokenAuditEventWriter tokenAuditEventWriter,
+            TokenEpochRefresher tokenEpochRefresher,
+            PasswordEncoder passwordEncoder,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${users.import.batch-size:1000}") int batchSize,
+            @Value("${users.import.max-rows:100000}") int maxRows,
+            @Value("${users.import.hash-threads:0}") int hashThreads,
+            @Value("${users.bulk-status.chunk-size:1000}") int statusChunkSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.auditRevisions = auditRevisions;
+        this.tokenAuditEventWriter = tokenAuditEventWriter;
+        this.tokenEpochRefresher = tokenEpochRefresher;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.rowReader = objectMapper.readerFor(RegisterRequest.class);
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+        this.statusChunkSize = statusChunkSize;
+        // BCrypt is CPU-bound: one thread per core, shared by concurrent imports
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdownNow();
+    }
+
+    /**
+     * Create users from a CSV (header row with email, fullName, password and optional role) or NDJSON
+     * (one RegisterRequest object per line) upload. No tokens are issued.
+     * Rows are validated like single registrations; emails already registered or repeated in the file
+     * are skipped. Passwords are hashed in parallel while earlier chunks are written; each chunk of
+     * batchSize users commits on its own. A chunk that fails is rolled back and its rows reported FAILED,
+     * and the import goes on with the next one, so the response always covers every row.
+     */
+    public UserImportResponse importUsers(InputStream body, MediaType contentType) throws IOException {
+        List<ImportRow> rows = TEXT_CSV.isCompatibleWith(contentType) ? parseCsv(body) : parseNdjson(body);
+        UserImportResponse.RowResult[] results = new UserImportResponse.RowResult[rows.size()];
+
+        List<Candidate> candidates = new ArrayList<>(rows.size());
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            String error = row.error() != null ? row.error() : validate(row.request());
+            String email = row.request() != null ? row.request().getEmail() : null;
+            if (error != null) {
+                results[i] = result(row, email, UserImportStatusEnum.INVALID, null, error);
+            } else if (!seen.add(email)) {
+                results[i] = result(row, email, UserImportStatusEnum.DUPLICATE, null, null);
+            } else {
+                candidates.add(new Candidate(i, row, roleOf(row.request()), UUID.randomUUID()));
+            }
+        }
+
+        Set<String> existing = findExistingEmails(candidates.stream().map(c -> c.row().request().getEmail()).toList());
+        List<Candidate> toCreate = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            if (existing.contains(candidate.row().request().getEmail())) {
+                results[candidate.index()] = result(candidate.row(), candidate.row().request().getEmail(),
+                        UserImportStatusEnum.EXISTS, null, null);
+            } else {
+                toCreate.add(candidate);
+            }
+        }
+
+        String[] hashes = new String[toCreate.size()];
+        List<Future<?>> slices = new ArrayList<>();
+        for (int from = 0; from < toCreate.size(); from += HASH_SLICE_SIZE) {
+            int start = from;
+            int end = Math.min(from + HASH_SLICE_SIZE, toCreate.size());
+            slices.add(hashExecutor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    hashes[i] = passwordEncoder.encode(toCreate.get(i).row().request().getPassword());
+                }
+            }));
+        }
+
+        try {
+            for (int from = 0; from < toCreate.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, toCreate.size());
+                List<Candidate> chunk = toCreate.subList(from, to);
+                boolean[] inserted;
+                try {
+                    for (int slice = from / HASH_SLICE_SIZE; slice <= (to - 1) / HASH_SLICE_SIZE; slice++) {
+                        slices.get(slice).get();
+                    }
+                    inserted = writeChunk(chunk, Arrays.copyOfRange(hashes, from, to));
+                } catch (ExecutionException | RuntimeException e) {
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    log.error("User import chunk of {} rows failed: {}", chunk.size(), cause.getMessage(), cause);
+                    for (Candidate candidate : chunk) {
+                        results[candidate.index()] = result(candidate.row(), candidate.row().request().getEmail(),
+                                UserImportStatusEnum.FAILED, null, "Not imported: " + cause.getMessage());
+                    }
+                    continue;
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    Candidate candidate = chunk.get(i);
+                    // a row not inserted was registered concurrently since the existence check
+                    results[candidate.index()] = result(candidate.row(), candidate.row().request().getEmail(),
+                            inserted[i] ? UserImportStatusEnum.CREATED : UserImportStatusEnum.EXISTS,
+                            inserted[i] ? candidate.id() : null, null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("User import interrupted", e);
+        } finally {
+            slices.forEach(slice -> slice.cancel(true));
+        }
+
+        int created = 0;
+        int skipped = 0;
+        int invalid = 0;
+        int failed = 0;
+        for (UserImportResponse.RowResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case EXISTS, DUPLICATE -> skipped++;
+                case INVALID -> invalid++;
+                case FAILED -> failed++;
+            }
+        }
+        log.info("Imported users: {} rows, {} created, {} skipped, {} invalid, {} failed",
+                rows.size(), created, skipped, invalid, failed);
+
+        return UserImportResponse.builder()
+                .totalRows(rows.size())
+                .created(created)
+                .skipped(skipped)
+                .invalid(invalid)
+                .failed(failed)
+                .rows(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Insert one chunk and its audit rows in a transaction of its own
+     *
+     * @return which rows of the chunk were inserted, once committed
+     */
+    private boolean[] writeChunk(List<Candidate> chunk, String[] hashes) {
+        return transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_USER_SQL, indexes(chunk.size()), chunk.size(), (ps, i) -> {
+                Candidate candidate = chunk.get(i);
+                RegisterRequest request = candidate.row().request();
+                ps.setObject(1, candidate.id());
+                ps.setString(2, request.getEmail());
+                ps.setString(3, request.getFullName());
+                ps.setString(4, hashes[i]);
+                ps.setString(5, candidate.role().name());
+                ps.setBoolean(6, true);
+                ps.setTimestamp(7, now);
+                ps.setTimestamp(8, now);
+            });
+            boolean[] inserted = insertedRows(chunk, counts);
+
+            List<Integer> audited = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                if (inserted[i]) {
+                    audited.add(i);
+                }
+            }
+            if (audited.isEmpty()) {
+                return inserted;
+            }
+
+            int revision = auditRevisions.newRevision();
+            jdbcTemplate.batchUpdate(INSERT_USER_AUD_SQL, audited, audited.size(), (ps, i) -> {
+                Candidate candidate = chunk.get(i);
+                RegisterRequest request = candidate.row().request();
+                ps.setObject(1, candidate.id());
+                ps.setInt(2, revision);
+                ps.setInt(3, AuditRevisions.REVTYPE_ADD);
+                ps.setString(4, request.getEmail());
+                ps.setString(5, request.getFullName());
+                ps.setString(6, hashes[i]);
+                ps.setString(7, candidate.role().name());
+                ps.setBoolean(8, true);
+                ps.setTimestamp(9, now);
+                ps.setTimestamp(10, now);
+            });
+            return inserted;
+        });
+    }
+
+    /**
+     * Which rows of the batch were inserted. With reWriteBatchedInserts the driver reports
+     * SUCCESS_NO_INFO instead of per-row counts; the ids are then looked up, they are ours alone
+     */
+    private boolean[] insertedRows(List<Candidate> chunk, int[][] counts) {
+        int[] flat = Arrays.stream(counts).flatMapToInt(Arrays::stream).toArray();
+        boolean[] inserted = new boolean[chunk.size()];
+        boolean known = flat.length == chunk.size();
+        for (int i = 0; known && i < flat.length; i++) {
+            if (flat[i] == Statement.SUCCESS_NO_INFO) {
+                known = false;
+            } else {
+                inserted[i] = flat[i] > 0;
+            }
+        }
+        if (!known) {
+            Set<UUID> present = new HashSet<>(jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(PRESENT_IDS_SQL);
+                ps.setArray(1, con.createArrayOf("uuid", chunk.stream().map(Candidate::id).toArray()));
+                return ps;
+            }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+            for (int i = 0; i < chunk.size(); i++) {
+                inserted[i] = present.contains(chunk.get(i).id());
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Enable or disable many users: the ids in the request, or every user matching its filter.
+     * Each chunk is one transaction with one set-based UPDATE (users already in the target state are left
+     * alone), the users_aud rows for the changed users under a single revision, and, when disabling,
+     * the deletion of their refresh tokens
+     */
+    public BulkUserStatusResponse updateStatus(BulkUserStatusRequest request) {
+        boolean enabled = request.getEnabled();
+        boolean byIds = request.getUserIds() != null && !request.getUserIds().isEmpty();
+        boolean byFilter = request.getRole() != null || request.getCreatedFrom() != null
+                || request.getCreatedTo() != null;
+        if (byIds == byFilter) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Specify either userIds or at least one of role, createdFrom, createdTo");
+        }
+
+        int updated = 0;
+        int revoked = 0;
+        if (byIds) {
+            List<UUID> ids = List.copyOf(new LinkedHashSet<>(request.getUserIds()));
+            for (int from = 0; from < ids.size(); from += statusChunkSize) {
+                StatusChunk chunk = applyStatus(ids.subList(from, Math.min(from + statusChunkSize, ids.size())), enabled);
+                updated += chunk.updated();
+                revoked += chunk.revoked();
+            }
+        } else {
+            // walk matching users by id; users flipped in earlier chunks no longer match "enabled <> ?"
+            UUID after = null;
+            List<UUID> ids;
+            do {
+                ids = findStatusTargets(request, enabled, after);
+                if (!ids.isEmpty()) {
+                    StatusChunk chunk = applyStatus(ids, enabled);
+                    updated += chunk.updated();
+                    revoked += chunk.revoked();
+                    after = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == statusChunkSize);
+        }
+
+        log.info("Bulk status update: {} users {}, {} refresh tokens revoked",
+                updated, enabled ? "enabled" : "disabled", revoked);
+        return BulkUserStatusResponse.builder()
+                .enabled(enabled)
+                .updatedUsers(updated)
+                .revokedTokens(revoked)
+                .build();
+    }
+
+    private StatusChunk applyStatus(List<UUID> ids, boolean enabled) {
+        List<Object[]> revokedTokens = new ArrayList<>();
+        Map<UUID, Long> epochs = new HashMap<>();
+        Integer updated = transactionTemplate.execute(status -> {
+            int revision = auditRevisions.newRevision();
+            Object[] idArray = ids.toArray();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(UPDATE_STATUS_SQL);
+                ps.setBoolean(1, enabled);
+                ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                ps.setBoolean(3, enabled);
+                ps.setArray(4, con.createArrayOf("uuid", idArray));
+                ps.setBoolean(5, enabled);
+                ps.setInt(6, revision);
+                ps.setInt(7, AuditRevisions.REVTYPE_MOD);
+                return ps;
+            }, rs -> {
+                epochs.put(rs.getObject(1, UUID.class), rs.getLong(2));
+            });
+            List<UUID> changed = List.copyOf(epochs.keySet());
+
+            if (changed.isEmpty()) {
+                // nothing to record: drop the revision row as well
+                status.setRollbackOnly();
+                return 0;
+            }
+            if (!enabled) {
+                revokedTokens.addAll(jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(REVOKE_TOKENS_SQL);
+                    ps.setArray(1, con.createArrayOf("uuid", changed.toArray()));
+                    return ps;
+                }, (rs, rowNum) -> new Object[]{rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)}));
+            }
+            return changed.size();
+        });
+
+        if (!enabled && updated != null && updated > 0) {
+            // committed: outstanding access tokens of the disabled users stop working now, cluster-wide
+            epochs.forEach(tokenEpochRefresher::advance);
+        }
+        for (Object[] token : revokedTokens) {
+            tokenAuditEventWriter.record("TOKEN_REVOKED", (UUID) token[1], (UUID) token[0]);
+        }
+        return new StatusChunk(updated != null ? updated : 0, revokedTokens.size());
+    }
+
+    private List<UUID> findStatusTargets(BulkUserStatusRequest request, boolean enabled, UUID after) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM users WHERE enabled <> ?");
+        List<Object> args = new ArrayList<>();
+        args.add(enabled);
+        if (request.getRole() != null) {
+            sql.append(" AND role = ?");
+            args.add(request.getRole().name());
+        }
+        if (request.getCreatedFrom() != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(request.getCreatedFrom()));
+        }
+        if (request.getCreatedTo() != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(request.getCreatedTo()));
+        }
+        if (after != null) {
+            sql.append(" AND id > ?");
+            args.add(after);
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(statusChunkSize);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> rs.getObject(1, UUID.class), args.toArray());
+    }
+
+    /**
+     * Record a revision the way Envers would, with the current user, IP and HTTP method
+     */
+    private Set<String> findExistingEmails(List<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += LOOKUP_CHUNK_SIZE) {
+            Object[] chunk = emails.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, emails.size())).toArray();
+            existing.addAll(jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(EXISTING_EMAILS_SQL);
+                ps.setArray(1, con.createArrayOf("text", chunk));
+                return ps;
+            }, (rs, rowNum) -> rs.getString(1)));
+        }
+        return existing;
+    }
+
+    private String validate(RegisterRequest request) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (request.getRole() != null && !request.getRole().isBlank()) {
+            try {
+                RoleEnum.valueOf(request.getRole().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return "Unknown role: " + request.getRole();
+            }
+        }
+        return null;
+    }
+
+    private static RoleEnum roleOf(RegisterRequest request) {
+        return request.getRole() != null && !request.getRole().isBlank()
+                ? RoleEnum.valueOf(request.getRole().trim().toUpperCase(Locale.ROOT))
+                : RoleEnum.CLIENT;
+    }
+
+    private List<ImportRow> parseNdjson(InputStream body) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            checkRowLimit(rows);
+            try {
+                rows.add(new ImportRow(lineNumber, rowReader.readValue(line), null));
+            } catch (JsonProcessingException e) {
+                rows.add(new ImportRow(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * RFC 4180 style CSV: comma separated, double-quoted fields with "" escapes; quoted fields
+     * may not span lines
+     */
+    List<ImportRow> parseCsv(InputStream body) throws IOException {
+        List<ImportRow> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = null;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line);
+            if (fields == null) {
+                checkRowLimit(rows);
+                rows.add(new ImportRow(lineNumber, null, "Unterminated quoted field"));
+                continue;
+            }
+            if (columns == null) {
+                columns = csvColumns(fields);
+                continue;
+            }
+            checkRowLimit(rows);
+            RegisterRequest request = RegisterRequest.builder()
+                    .email(field(fields, columns.get("email")))
+                    .fullName(field(fields, columns.get("fullname")))
+                    .password(field(fields, columns.get("password")))
+                    .role(field(fields, columns.get("role")))
+                    .build();
+            rows.add(new ImportRow(lineNumber, request, null));
+        }
+        return rows;
+    }
+
+    private Map<String, Integer> csvColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        if (!columns.keySet().containsAll(List.of("email", "fullname", "password"))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must name the email, fullName and password columns");
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Integer column) {
+        return column != null && column < fields.size() ? fields.get(column).trim() : null;
+    }
+
+    /**
+     * @return the fields, or null when a quoted field is not closed
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void checkRowLimit(List<ImportRow> rows) {
+        if (rows.size() >= maxRows) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Import is limited to " + maxRows + " rows");
+        }
+    }
+
+    private static List<Integer> indexes(int size) {
+        List<Integer> indexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private static UserImportResponse.RowResult result(ImportRow row, String email, UserImportStatusEnum status,
+                                                       UUID userId, String error) {
+        return UserImportResponse.RowResult.builder()
+                .line(row.line())
+                .email(email)
+                .status(status)
+                .userId(userId)
+                .error(error)
+                .build();
+    }
+
+    record ImportRow(int line, RegisterRequest request, String error) {
+    }
+
+    private record Candidate(int index, ImportRow row, RoleEnum role, UUID id) {
+    }
+
+    private record StatusChunk(int updated, int revoked) {
+    }
+}
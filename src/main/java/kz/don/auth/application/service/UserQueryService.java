@@ -0,0 +1,230 @@
+package kz.don.auth.application.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import kz.don.auth.domain.enums.RoleEnum;
+import kz.don.auth.domain.projection.UserSearchHit;
+import kz.don.auth.domain.projection.UserSummary;
+import kz.don.auth.domain.repository.UserRepository;
+import kz.don.auth.web.dto.response.KeysetPageResponse;
+import kz.don.auth.web.dto.response.UserResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Admin user listing and search over the {@link UserSummary} projection.
+ * Listings are keyset-paginated by (createdAt, id), searches by (score, id)
+ */
+@Slf4j
+@Service
+public class UserQueryService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final int MAX_SEARCH_SIZE = 100;
+    private static final int MAX_QUERY_LENGTH = 100;
+    // rows scored per search branch; a search never pages past the best of these
+    private static final int MAX_SEARCH_CANDIDATES = 1000;
+    // shorter queries yield no trigrams, so they only match as a prefix
+    private static final int MIN_SUBSTRING_QUERY_LENGTH = 3;
+
+    private final UserRepository userRepository;
+    private final ObjectWriter ndjsonWriter;
+
+    public UserQueryService(UserRepository userRepository, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        // flushing after every line would mean a write per user; the export flushes per batch instead
+        this.ndjsonWriter = objectMapper.writerFor(UserResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Optional listing filters; createdTo is exclusive
+     */
+    public record Filter(RoleEnum role, Boolean enabled, LocalDateTime createdFrom, LocalDateTime createdTo) {
+    }
+
+    /**
+     * One page of users, oldest first. cursor is the nextCursor returned by the previous page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageResponse<UserResponse> listUsers(Filter filter, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Key after = cursor != null && !cursor.isEmpty() ? decodeCursor(cursor) : null;
+
+        List<UserSummary> rows = fetch(filter, after, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<UserSummary> page = hasMore ? rows.subList(0, limit) : rows;
+
+        return KeysetPageResponse.<UserResponse>builder()
+                .items(page.stream().map(this::mapToResponse).toList())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1)) : null)
+                .build();
+    }
+
+    /**
+     * Write every matching user to out as newline-delimited JSON, walking the keyset in batches so
+     * neither the result set nor a transaction is held for the whole export
+     *
+     * @return number of users written
+     */
+    public long exportUsers(Filter filter, OutputStream out) throws IOException {
+        long total = 0;
+        Key after = null;
+        try (JsonGenerator generator = ndjsonWriter.getFactory().createGenerator(out)) {
+            // lines are ended explicitly; the default separator would put a space before every value but the first
+            generator.setRootValueSeparator(null);
+            List<UserSummary> batch;
+            do {
+                batch = fetch(filter, after, EXPORT_BATCH_SIZE);
+                for (UserSummary user : batch) {
+                    ndjsonWriter.writeValue(generator, mapToResponse(user));
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+                total += batch.size();
+                if (!batch.isEmpty()) {
+                    UserSummary last = batch.get(batch.size() - 1);
+                    after = new Key(last.getCreatedAt(), last.getId());
+                }
+            } while (batch.size() == EXPORT_BATCH_SIZE);
+        }
+        log.info("Exported {} users", total);
+        return total;
+    }
+
+    /**
+     * Users whose email or full name contains q (case-insensitive), best match first; queries shorter than
+     * three characters match email/name prefixes only. cursor is the nextCursor returned by the previous page
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageResponse<UserResponse> searchUsers(String q, String cursor, int size) {
+        String query = q != null ? q.trim().toLowerCase(Locale.ROOT) : "";
+        if (query.isEmpty() || query.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "q must be between 1 and " + MAX_QUERY_LENGTH + " characters");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_SEARCH_SIZE));
+        SearchKey after = cursor != null && !cursor.isEmpty() ? decodeSearchCursor(cursor) : null;
+
+        String escaped = escapeLike(query);
+        String prefix = escaped + "%";
+        String pattern = query.length() >= MIN_SUBSTRING_QUERY_LENGTH ? "%" + prefix : prefix;
+
+        List<UserSearchHit> hits = userRepository.searchUserIds(query, prefix, pattern,
+                after != null ? after.score() : null, after != null ? after.id() : null,
+                MAX_SEARCH_CANDIDATES, limit + 1);
+        boolean hasMore = hits.size() > limit;
+        List<UserSearchHit> page = hasMore ? hits.subList(0, limit) : hits;
+
+        Map<UUID, UserSummary> users = userRepository.findByIdIn(page.stream().map(UserSearchHit::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(UserSummary::getId, Function.identity()));
+        List<UserResponse> items = page.stream()
+                .map(hit -> users.get(hit.getId()))
+                .filter(Objects::nonNull)
+                .map(this::mapToResponse)
+                .toList();
+
+        UserSearchHit last = hasMore ? page.get(page.size() - 1) : null;
+        return KeysetPageResponse.<UserResponse>builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(last != null ? encode(last.getScore() + "|" + last.getId()) : null)
+                .build();
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private List<UserSummary> fetch(Filter filter, Key after, int limit) {
+        if (after == null) {
+            return userRepository.findUserSummaries(
+                    filter.role(), filter.enabled(), filter.createdFrom(), filter.createdTo(),
+                    PageRequest.of(0, limit));
+        }
+        return userRepository.findUserSummariesAfter(
+                filter.role(), filter.enabled(), filter.createdFrom(), filter.createdTo(),
+                after.createdAt(), after.id(),
+                PageRequest.of(0, limit));
+    }
+
+    private UserResponse mapToResponse(UserSummary user) {
+        return UserResponse.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .role(user.getRole() != null ? user.getRole().name() : null)
+                .enabled(user.isEnabled())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+
+    private record Key(LocalDateTime createdAt, UUID id) {
+    }
+
+    private record SearchKey(Float score, UUID id) {
+    }
+
+    // cursors are opaque to clients: base64url of "createdAt|id" or "score|id"
+    private static String encodeCursor(UserSummary last) {
+        return encode(last.getCreatedAt() + "|" + last.getId());
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Key decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf('|');
+            return new Key(LocalDateTime.parse(key.substring(0, separator)),
+                    UUID.fromString(key.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+
+    private static SearchKey decodeSearchCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf('|');
+            return new SearchKey(Float.valueOf(key.substring(0, separator)),
+                    UUID.fromString(key.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+}
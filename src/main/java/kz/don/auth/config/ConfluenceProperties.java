@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "confluence")
@@ -13,6 +16,57 @@ public class ConfluenceProperties {
     private String apiToken;
     private String username;
     private String defaultSpaceKey;
+    // Max wait to lease a pooled connection
     private int connectionTimeout = 30000;
     private int requestTimeout = 30000;
+    private int connectTimeout = 5000;
+    private int maxConnectionsTotal = 50;
+    private int maxConnectionsPerRoute = 20;
+    // Pooled connection lifetime: hard TTL, keep-alive cap when the server sends none (or a longer one),
+    // staleness check before reusing a connection idle this long, background eviction of idle connections
+    private long connectionTtlMs = 300000;
+    private long keepAliveMs = 30000;
+    private long validateAfterInactivityMs = 2000;
+    private long idleEvictionMs = 30000;
+    // Max child pages created in parallel by bulk uploads; capped at maxConnectionsPerRoute
+    private int bulkUploadConcurrency = 20;
+    // Background upload jobs: worker threads, queued jobs before rejecting, finished jobs kept for polling
+    private int uploadJobWorkers = 2;
+    private int uploadJobQueueCapacity = 50;
+    private int uploadJobRetention = 500;
+    // Read-through cache: pages are revalidated by version number after pageCacheRevalidateAfterMs
+    private int pageCacheMaxSize = 1000;
+    private long pageCacheRevalidateAfterMs = 60000;
+    private long pageCacheTtlMs = 3600000;
+    private int spaceCacheMaxSize = 200;
+    private long spaceCacheTtlMs = 900000;
+    // CQL search results: identical concurrent searches share one remote call, results are kept briefly
+    private int searchCacheMaxSize = 500;
+    private long searchCacheTtlMs = 5000;
+    // Resilience: one circuit breaker for Confluence, a bulkhead per operation, retries for idempotent reads only
+    private float circuitFailureRateThreshold = 50;
+    private long circuitSlowCallThresholdMs = 5000;
+    private float circuitSlowCallRateThreshold = 80;
+    private int circuitSlidingWindowSize = 50;
+    private int circuitMinimumCalls = 20;
+    private long circuitOpenStateMs = 30000;
+    private int bulkheadMaxConcurrentCalls = 20;
+    private long bulkheadMaxWaitMs = 500;
+    private int retryMaxAttempts = 3;
+    private long retryInitialBackoffMs = 200;
+    // Retry-After values above this are not waited out; the call fails instead
+    private long retryMaxRetryAfterMs = 10000;
+    // I/O reactor threads of the async client; HTTP/2 is negotiated over TLS where the server supports it
+    private int asyncIoThreads = 2;
+    // Postgres mirror for /api/django/files and /spaces/{key}/pages: pages changed since the watermark are
+    // pulled every mirrorSyncIntervalMs; the overlap re-reads recent changes since CQL dates are per minute,
+    // in mirrorCqlZone (the Confluence user's time zone). Empty mirrorSpaceKeys mirrors every space.
+    // Every mirrorReconcileIntervalMs the page ids of each space are listed to drop deleted and moved pages
+    private boolean mirrorEnabled = false;
+    private long mirrorSyncIntervalMs = 60000;
+    private long mirrorReconcileIntervalMs = 3600000;
+    private List<String> mirrorSpaceKeys = new ArrayList<>();
+    private int mirrorBatchSize = 200;
+    private long mirrorOverlapMs = 300000;
+    private String mirrorCqlZone = "UTC";
 }
\ No newline at end of file
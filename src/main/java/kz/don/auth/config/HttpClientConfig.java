@@ -1,29 +1,126 @@
 package kz.don.auth.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.function.ToIntFunction;
+
 @Configuration
 public class HttpClientConfig {
 
     @Bean
-    public CloseableHttpClient httpClient(ConfluenceProperties properties) {
-        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-        connectionManager.setMaxTotal(50);
-        connectionManager.setDefaultMaxPerRoute(20);
+    public CloseableHttpClient httpClient(ConfluenceProperties properties, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnectionsTotal())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(connectionConfig(properties))
+                .build();
+        registerPoolGauges(meterRegistry, connectionManager, "classic");
 
         return HttpClients.custom()
                 .setConnectionManager(connectionManager)
-                .setDefaultRequestConfig(
-                        org.apache.hc.client5.http.config.RequestConfig.custom()
-                                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionTimeout()))
-                                .setResponseTimeout(Timeout.ofMilliseconds(properties.getRequestTimeout()))
-                                .build()
-                )
+                .setDefaultRequestConfig(requestConfig(properties))
+                .setKeepAliveStrategy(keepAliveStrategy(properties))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleEvictionMs()))
+                .build();
+    }
+
+    /**
+     * Non-blocking client for ConfluenceAsyncService: requests are multiplexed over HTTP/2 when
+     * negotiated via ALPN, and served by a small fixed set of I/O reactor threads either way
+     */
+    @Bean
+    public CloseableHttpAsyncClient httpAsyncClient(ConfluenceProperties properties, MeterRegistry meterRegistry) {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnectionsTotal())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(connectionConfig(properties))
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                        .build())
                 .build();
+        registerPoolGauges(meterRegistry, connectionManager, "async");
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(properties.getAsyncIoThreads())
+                        .build())
+                .setDefaultRequestConfig(requestConfig(properties))
+                .setKeepAliveStrategy(keepAliveStrategy(properties))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleEvictionMs()))
+                .build();
+        client.start();
+        return client;
+    }
+
+    private RequestConfig requestConfig(ConfluenceProperties properties) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(properties.getRequestTimeout()))
+                .build();
+    }
+
+    /**
+     * Connections idle longer than validateAfterInactivity are checked before reuse, and none outlives
+     * the TTL, so a socket silently dropped by a proxy or load balancer is not handed to the next request
+     */
+    private ConnectionConfig connectionConfig(ConfluenceProperties properties) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(properties.getRequestTimeout()))
+                .setTimeToLive(TimeValue.ofMilliseconds(properties.getConnectionTtlMs()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(properties.getValidateAfterInactivityMs()))
+                .build();
+    }
+
+    /**
+     * Honor the server's Keep-Alive timeout, but never keep a connection longer than keepAliveMs
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy(ConfluenceProperties properties) {
+        TimeValue max = TimeValue.ofMilliseconds(properties.getKeepAliveMs());
+        return (response, context) -> {
+            TimeValue advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return advertised != null && advertised.compareTo(max) < 0 ? advertised : max;
+        };
+    }
+
+    private void registerPoolGauges(MeterRegistry meterRegistry, ConnPoolControl<?> pool, String client) {
+        registerPoolGauge(meterRegistry, pool, client, "leased", PoolStats::getLeased);
+        registerPoolGauge(meterRegistry, pool, client, "pending", PoolStats::getPending);
+        registerPoolGauge(meterRegistry, pool, client, "available", PoolStats::getAvailable);
+        registerPoolGauge(meterRegistry, pool, client, "max", PoolStats::getMax);
+    }
+
+    private void registerPoolGauge(MeterRegistry meterRegistry, ConnPoolControl<?> pool, String client,
+                                   String state, ToIntFunction<PoolStats> value) {
+        Gauge.builder("confluence.http.pool", pool, p -> value.applyAsInt(p.getTotalStats()))
+                .description("Confluence HTTP connection pool by state")
+                .tag("client", client)
+                .tag("state", state)
+                .register(meterRegistry);
     }
 }
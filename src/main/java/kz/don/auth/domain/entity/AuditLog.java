@@ -3,6 +3,8 @@ package kz.don.auth.domain.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -40,8 +42,9 @@ public class AuditLog {
     @Column(nullable = false)
     private Instant timestamp;
 
-    @Column(columnDefinition = "TEXT")
-    private String details; // JSON string with additional info
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String details; // raw JSON document, GIN-indexed for containment queries
 
     @Column(name = "ip_address", length = 45)
     private String ipAddress; // IPv4 or IPv6
@@ -0,0 +1,33 @@
+package kz.don.auth.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Progress of the Confluence mirror: pages modified after watermark have not been pulled yet
+ */
+@Entity
+@Table(name = "confluence_sync_state")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfluenceSyncState {
+
+    @Id
+    @Column(length = 100)
+    private String scope;
+
+    private Instant watermark; // latest Confluence lastmodified seen
+
+    @Column(name = "last_success_at")
+    private Instant lastSuccessAt;
+
+    @Column(name = "last_attempt_at")
+    private Instant lastAttemptAt;
+
+    @Column(name = "pages_synced")
+    private long pagesSynced; // pages upserted by the last successful run
+}
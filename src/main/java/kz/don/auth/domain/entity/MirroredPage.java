@@ -0,0 +1,47 @@
+package kz.don.auth.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Local copy of a Confluence page, kept current by ConfluenceMirrorService.
+ * Rows are written with a JDBC upsert; JPA is only used to read them.
+ */
+@Entity
+@Table(name = "confluence_pages", indexes = {
+        @Index(name = "idx_confluence_pages_space_title", columnList = "space_key, title"),
+        @Index(name = "idx_confluence_pages_last_modified", columnList = "last_modified")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MirroredPage {
+
+    @Id
+    @Column(length = 64)
+    private String id; // Confluence content id
+
+    @Column(name = "space_key", nullable = false, length = 255)
+    private String spaceKey;
+
+    @Column(nullable = false, length = 500)
+    private String title;
+
+    @Column(nullable = false)
+    private Integer version;
+
+    @Column(columnDefinition = "text")
+    private String content; // storage format
+
+    @Column(length = 1000)
+    private String webui;
+
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified;
+
+    @Column(name = "synced_at", nullable = false)
+    private Instant syncedAt;
+}
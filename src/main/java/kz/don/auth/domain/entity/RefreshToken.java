@@ -6,7 +6,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.envers.Audited;
 import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
@@ -17,8 +16,8 @@ import java.util.UUID;
 @Data
 @NoArgsConstructor
 @Builder
-@Audited
 @AllArgsConstructor
+// Not Envers-audited: rotations are recorded by TokenAuditEventWriter to keep login/refresh to one row write
 public class RefreshToken {
     @Id
     @GeneratedValue
@@ -58,6 +58,10 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    // bumped to revoke every token issued so far; tokens carry the epoch they were issued under
+    @Column(nullable = false)
+    private long tokenEpoch;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
@@ -0,0 +1,9 @@
+package kz.don.auth.domain.enums;
+
+public enum UploadJobStatusEnum {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    COMPLETED_WITH_ERRORS,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package kz.don.auth.domain.enums;
+
+public enum UserImportStatusEnum {
+    CREATED,
+    EXISTS,       // email already registered
+    DUPLICATE,    // email repeated earlier in the same file
+    INVALID,
+    FAILED        // its chunk could not be written; nothing was created for it
+}
@@ -0,0 +1,27 @@
+package kz.don.auth.domain.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Closed projection over {@link kz.don.auth.domain.entity.AuditLog} used by list/search endpoints.
+ * Leaves out details and userAgent so pages only read the narrow columns.
+ */
+public interface AuditLogSummary {
+
+    UUID getId();
+
+    UUID getUserId();
+
+    String getAction();
+
+    String getEntityType();
+
+    String getEntityId();
+
+    Instant getTimestamp();
+
+    String getIpAddress();
+
+    String getServiceName();
+}
@@ -0,0 +1,13 @@
+package kz.don.auth.domain.projection;
+
+import java.util.UUID;
+
+/**
+ * Ranked match of the admin user search; rows are then loaded as {@link UserSummary}
+ */
+public interface UserSearchHit {
+
+    UUID getId();
+
+    Float getScore();
+}
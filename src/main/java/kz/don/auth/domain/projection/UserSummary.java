@@ -0,0 +1,27 @@
+package kz.don.auth.domain.projection;
+
+import kz.don.auth.domain.enums.RoleEnum;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Closed projection over {@link kz.don.auth.domain.entity.User} for admin listings and exports.
+ * Only the columns exposed by UserResponse; the password hash is never read.
+ */
+public interface UserSummary {
+
+    UUID getId();
+
+    String getEmail();
+
+    String getFullName();
+
+    RoleEnum getRole();
+
+    boolean isEnabled();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -1,6 +1,7 @@
 package kz.don.auth.domain.repository;
 
 import kz.don.auth.domain.entity.AuditLog;
+import kz.don.auth.domain.projection.AuditLogSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,35 +11,70 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
 
-    Page<AuditLog> findByUserIdOrderByTimestampDesc(UUID userId, Pageable pageable);
+    Page<AuditLogSummary> findByUserIdOrderByTimestampDesc(UUID userId, Pageable pageable);
 
-    List<AuditLog> findByEntityTypeAndEntityIdOrderByTimestampDesc(
+    List<AuditLogSummary> findByEntityTypeAndEntityIdOrderByTimestampDesc(
             String entityType, String entityId);
 
-    Page<AuditLog> findAllByOrderByTimestampDesc(Pageable pageable);
+    Page<AuditLogSummary> findAllByOrderByTimestampDesc(Pageable pageable);
 
-    Page<AuditLog> findByActionOrderByTimestampDesc(String action, Pageable pageable);
+    Page<AuditLogSummary> findByActionOrderByTimestampDesc(String action, Pageable pageable);
 
-    List<AuditLog> findByTimestampBetweenOrderByTimestampDesc(
+    List<AuditLogSummary> findByTimestampBetweenOrderByTimestampDesc(
             Instant startTime, Instant endTime);
 
-    Page<AuditLog> findByServiceNameOrderByTimestampDesc(
+    Page<AuditLogSummary> findByServiceNameOrderByTimestampDesc(
             String serviceName, Pageable pageable);
 
-    @Query("SELECT a FROM AuditLog a WHERE " +
+    List<AuditLogSummary> findByIdInOrderByTimestampDesc(Collection<UUID> ids);
+
+    @Query("SELECT a.id AS id, a.userId AS userId, a.action AS action, a.entityType AS entityType, " +
+            "a.entityId AS entityId, a.timestamp AS timestamp, a.ipAddress AS ipAddress, " +
+            "a.serviceName AS serviceName FROM AuditLog a WHERE " +
             "(:userId IS NULL OR a.userId = :userId) AND " +
             "(:action IS NULL OR a.action = :action) AND " +
             "(:entityType IS NULL OR a.entityType = :entityType) AND " +
             "(:startTime IS NULL OR a.timestamp >= :startTime) AND " +
             "(:endTime IS NULL OR a.timestamp <= :endTime) " +
             "ORDER BY a.timestamp DESC")
-    Page<AuditLog> searchAuditLogs(
+    Page<AuditLogSummary> searchAuditLogs(
+            @Param("userId") UUID userId,
+            @Param("action") String action,
+            @Param("entityType") String entityType,
+            @Param("startTime") Instant startTime,
+            @Param("endTime") Instant endTime,
+            Pageable pageable);
+
+    /**
+     * Same filters as {@link #searchAuditLogs}, plus a jsonb containment match on details
+     * (e.g. {"orderId": "42"}), served by the GIN index on audit_logs.details.
+     * Returns ids only; rows are then loaded through {@link #findByIdInOrderByTimestampDesc}
+     */
+    @Query(value = "SELECT a.id FROM audit_logs a WHERE " +
+            "a.details @> CAST(:details AS jsonb) AND " +
+            "(CAST(:userId AS uuid) IS NULL OR a.user_id = CAST(:userId AS uuid)) AND " +
+            "(CAST(:action AS varchar) IS NULL OR a.action = CAST(:action AS varchar)) AND " +
+            "(CAST(:entityType AS varchar) IS NULL OR a.entity_type = CAST(:entityType AS varchar)) AND " +
+            "(CAST(:startTime AS timestamptz) IS NULL OR a.timestamp >= CAST(:startTime AS timestamptz)) AND " +
+            "(CAST(:endTime AS timestamptz) IS NULL OR a.timestamp <= CAST(:endTime AS timestamptz)) " +
+            "ORDER BY a.timestamp DESC",
+            countQuery = "SELECT count(*) FROM audit_logs a WHERE " +
+                    "a.details @> CAST(:details AS jsonb) AND " +
+                    "(CAST(:userId AS uuid) IS NULL OR a.user_id = CAST(:userId AS uuid)) AND " +
+                    "(CAST(:action AS varchar) IS NULL OR a.action = CAST(:action AS varchar)) AND " +
+                    "(CAST(:entityType AS varchar) IS NULL OR a.entity_type = CAST(:entityType AS varchar)) AND " +
+                    "(CAST(:startTime AS timestamptz) IS NULL OR a.timestamp >= CAST(:startTime AS timestamptz)) AND " +
+                    "(CAST(:endTime AS timestamptz) IS NULL OR a.timestamp <= CAST(:endTime AS timestamptz))",
+            nativeQuery = true)
+    Page<UUID> searchAuditLogIdsByDetails(
+            @Param("details") String details,
             @Param("userId") UUID userId,
             @Param("action") String action,
             @Param("entityType") String entityType,
@@ -53,4 +89,4 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
     long countByUserId(UUID userId);
 
     long countByEntityTypeAndEntityId(String entityType, String entityId);
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package kz.don.auth.domain.repository;
+
+import kz.don.auth.domain.entity.ConfluenceSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConfluenceSyncStateRepository extends JpaRepository<ConfluenceSyncState, String> {
+}
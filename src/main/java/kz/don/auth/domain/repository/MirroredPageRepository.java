@@ -0,0 +1,27 @@
+package kz.don.auth.domain.repository;
+
+import kz.don.auth.domain.entity.MirroredPage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface MirroredPageRepository extends JpaRepository<MirroredPage, String> {
+
+    List<MirroredPage> findBySpaceKeyOrderByTitleAsc(String spaceKey, Pageable pageable);
+
+    /**
+     * Keyset walk over a space: pass the last id of the previous batch ("" to start)
+     */
+    List<MirroredPage> findTop500BySpaceKeyAndIdGreaterThanOrderByIdAsc(String spaceKey, String afterId);
+
+    List<MirroredPage> findTop500ByIdGreaterThanOrderByIdAsc(String afterId);
+
+    /**
+     * Keyset walk over pages written by passes that started after syncedAfter
+     */
+    List<MirroredPage> findTop500BySyncedAtAfterAndIdGreaterThanOrderByIdAsc(Instant syncedAfter, String afterId);
+}
@@ -3,6 +3,7 @@ package kz.don.auth.domain.repository;
 import kz.don.auth.domain.entity.User;
 import org.hibernate.envers.AuditReader;
 import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.RevisionType;
 import org.hibernate.envers.query.AuditEntity;
 import org.hibernate.envers.query.AuditQuery;
 import org.springframework.stereotype.Repository;
@@ -18,32 +19,56 @@ public class UserAuditRepository {
     @PersistenceContext
     private EntityManager entityManager;
 
-    public List<Object[]> getUserRevisionsWithOperation(UUID userId) {
+    /**
+     * One page of a user's revisions, newest first, keyed by revision number.
+     * Envers selects the audited row and its AuditEnversInfo in a single join;
+     * the (id, rev) index on users_aud keeps this a range scan.
+     *
+     * @return rows of [User snapshot, AuditEnversInfo, RevisionType]
+     */
+    public List<Object[]> findUserRevisions(UUID userId, Integer beforeRevision, int limit) {
         AuditReader auditReader = AuditReaderFactory.get(entityManager);
 
         AuditQuery query = auditReader.createQuery()
                 .forRevisionsOfEntity(User.class, false, true)
-                .add(AuditEntity.id().eq(userId))
-                .addOrder(AuditEntity.revisionNumber().asc());
+                .add(AuditEntity.id().eq(userId));
 
-        return query.getResultList();
+        if (beforeRevision != null) {
+            query.add(AuditEntity.revisionNumber().lt(beforeRevision));
+        }
+
+        return query
+                .addOrder(AuditEntity.revisionNumber().desc())
+                .setMaxResults(limit)
+                .getResultList();
     }
 
-    public List<Object[]> findRevisionsByOperationType(String operationType) {
+    /**
+     * One page of revisions of any user with the given operation, newest first, keyed by revision number
+     */
+    public List<Object[]> findRevisionsByOperationType(String operationType, Integer beforeRevision, int limit) {
         AuditReader auditReader = AuditReaderFactory.get(entityManager);
 
-        return auditReader.createQuery()
+        AuditQuery query = auditReader.createQuery()
                 .forRevisionsOfEntity(User.class, false, true)
-                .add(AuditEntity.revisionType().eq(getRevisionType(operationType)))
+                .add(AuditEntity.revisionType().eq(getRevisionType(operationType)));
+
+        if (beforeRevision != null) {
+            query.add(AuditEntity.revisionNumber().lt(beforeRevision));
+        }
+
+        return query
+                .addOrder(AuditEntity.revisionNumber().desc())
+                .setMaxResults(limit)
                 .getResultList();
     }
 
-    private org.hibernate.envers.RevisionType getRevisionType(String operationType) {
+    private RevisionType getRevisionType(String operationType) {
         return switch (operationType.toUpperCase()) {
-            case "INSERT" -> org.hibernate.envers.RevisionType.ADD;
-            case "UPDATE" -> org.hibernate.envers.RevisionType.MOD;
-            case "DELETE" -> org.hibernate.envers.RevisionType.DEL;
-            default -> null;
+            case "INSERT" -> RevisionType.ADD;
+            case "UPDATE" -> RevisionType.MOD;
+            case "DELETE" -> RevisionType.DEL;
+            default -> throw new IllegalArgumentException("Unknown operation type: " + operationType);
         };
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,18 @@
 package kz.don.auth.domain.repository;
 
 import kz.don.auth.domain.entity.User;
+import kz.don.auth.domain.enums.RoleEnum;
+import kz.don.auth.domain.projection.UserSearchHit;
+import kz.don.auth.domain.projection.UserSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +20,81 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * First keyset page of users ordered by (createdAt, id); continue with {@link #findUserSummariesAfter}.
+     * Pass a Pageable of page 0 to cap the size; no count query is run. Served by idx_users_created_at_id
+     */
+    @Query("SELECT u.id AS id, u.email AS email, u.fullName AS fullName, u.role AS role, " +
+            "u.enabled AS enabled, u.createdAt AS createdAt, u.updatedAt AS updatedAt FROM User u WHERE " +
+            "(:role IS NULL OR u.role = :role) AND " +
+            "(:enabled IS NULL OR u.enabled = :enabled) AND " +
+            "(:createdFrom IS NULL OR u.createdAt >= :createdFrom) AND " +
+            "(:createdTo IS NULL OR u.createdAt < :createdTo) " +
+            "ORDER BY u.createdAt ASC, u.id ASC")
+    List<UserSummary> findUserSummaries(
+            @Param("role") RoleEnum role,
+            @Param("enabled") Boolean enabled,
+            @Param("createdFrom") LocalDateTime createdFrom,
+            @Param("createdTo") LocalDateTime createdTo,
+            Pageable pageable);
+
+    /**
+     * Keyset page of users after the given (createdAt, id). The row-value comparison lets Postgres start
+     * the index scan at the key instead of filtering every earlier row
+     */
+    @Query("SELECT u.id AS id, u.email AS email, u.fullName AS fullName, u.role AS role, " +
+            "u.enabled AS enabled, u.createdAt AS createdAt, u.updatedAt AS updatedAt FROM User u WHERE " +
+            "(:role IS NULL OR u.role = :role) AND " +
+            "(:enabled IS NULL OR u.enabled = :enabled) AND " +
+            "(:createdFrom IS NULL OR u.createdAt >= :createdFrom) AND " +
+            "(:createdTo IS NULL OR u.createdAt < :createdTo) AND " +
+            "(u.createdAt, u.id) > (:afterCreatedAt, :afterId) " +
+            "ORDER BY u.createdAt ASC, u.id ASC")
+    List<UserSummary> findUserSummariesAfter(
+            @Param("role") RoleEnum role,
+            @Param("enabled") Boolean enabled,
+            @Param("createdFrom") LocalDateTime createdFrom,
+            @Param("createdTo") LocalDateTime createdTo,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") UUID afterId,
+            Pageable pageable);
+
+    List<UserSummary> findByIdIn(Collection<UUID> ids);
+
+    /**
+     * Users whose lowercased email or full name matches pattern (a LIKE pattern, already lowercased and
+     * escaped), best first. Score is the better trigram similarity of the two columns to query, plus 2 for
+     * an exact email match or 1 for a prefix match, so the obvious hit ranks first. Keyset-paged by
+     * (score, id) after the given key (both null for the first page).
+     * Only a bounded candidate set is scored: per column, the pattern matches and the prefix matches
+     * nearest to query by trigram distance, at most candidates of each, read in distance order from the
+     * GiST trigram indexes. The best-scoring rows are always among them; paging stops at their end.
+     * Returns ids only; rows are then loaded through {@link #findByIdIn}
+     */
+    @Query(value = "SELECT m.id AS id, m.score AS score FROM (" +
+            "SELECT c.id AS id, CAST(GREATEST(similarity(c.email, :query), similarity(c.full_name, :query)) + " +
+            "CASE WHEN c.email = :query THEN 2 " +
+            "WHEN c.email LIKE :prefix OR c.full_name LIKE :prefix THEN 1 ELSE 0 END AS real) AS score FROM (" +
+            "(SELECT u.id AS id, lower(u.email) AS email, lower(u.full_name) AS full_name FROM users u " +
+            "WHERE lower(u.email) LIKE :pattern ORDER BY lower(u.email) <-> :query LIMIT :candidates) UNION " +
+            "(SELECT u.id, lower(u.email), lower(u.full_name) FROM users u " +
+            "WHERE lower(u.full_name) LIKE :pattern ORDER BY lower(u.full_name) <-> :query LIMIT :candidates) UNION " +
+            "(SELECT u.id, lower(u.email), lower(u.full_name) FROM users u " +
+            "WHERE lower(u.email) LIKE :prefix ORDER BY lower(u.email) <-> :query LIMIT :candidates) UNION " +
+            "(SELECT u.id, lower(u.email), lower(u.full_name) FROM users u " +
+            "WHERE lower(u.full_name) LIKE :prefix ORDER BY lower(u.full_name) <-> :query LIMIT :candidates)" +
+            ") c) m " +
+            "WHERE CAST(:afterScore AS real) IS NULL OR m.score < CAST(:afterScore AS real) OR " +
+            "(m.score = CAST(:afterScore AS real) AND m.id > CAST(:afterId AS uuid)) " +
+            "ORDER BY m.score DESC, m.id ASC LIMIT :limit",
+            nativeQuery = true)
+    List<UserSearchHit> searchUserIds(
+            @Param("query") String query,
+            @Param("prefix") String prefix,
+            @Param("pattern") String pattern,
+            @Param("afterScore") Float afterScore,
+            @Param("afterId") UUID afterId,
+            @Param("candidates") int candidates,
+            @Param("limit") int limit);
+}
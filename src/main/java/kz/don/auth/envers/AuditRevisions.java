@@ -0,0 +1,40 @@
+package kz.don.auth.envers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Envers revisions for audit rows written with plain SQL. Bulk statements bypass Envers, so callers
+ * open a revision here and insert their *_aud rows under it in the same transaction
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditRevisions {
+
+    // users_aud.revtype values, as Envers writes them
+    public static final int REVTYPE_ADD = 0;
+    public static final int REVTYPE_MOD = 1;
+
+    private static final String INSERT_REVISION_SQL = "INSERT INTO audit_envers_info " +
+            "(timestamp, operation_type, username, ip_address) VALUES (?, ?, ?, ?) RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert a revision filled in by {@link AuditRevisionListener}, as Envers would for the current request
+     *
+     * @return the revision id
+     */
+    public int newRevision() {
+        AuditEnversInfo revision = new AuditEnversInfo();
+        new AuditRevisionListener().newRevision(revision);
+        Integer id = jdbcTemplate.queryForObject(INSERT_REVISION_SQL, Integer.class,
+                System.currentTimeMillis(), revision.getOperationType(), revision.getUsername(),
+                revision.getIpAddress());
+        if (id == null) {
+            throw new IllegalStateException("No revision id returned");
+        }
+        return id;
+    }
+}
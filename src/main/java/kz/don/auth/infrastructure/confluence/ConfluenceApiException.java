@@ -0,0 +1,69 @@
+package kz.don.auth.infrastructure.confluence;
+
+import lombok.Getter;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Non-2xx answer from Confluence, or a call refused locally because Confluence is unhealthy
+ * (open circuit, full bulkhead; status 503). Carries what the retry policy needs to decide.
+ */
+@Getter
+public class ConfluenceApiException extends IOException {
+
+    private final int status;
+    private final Duration retryAfter;
+
+    public ConfluenceApiException(String message, int status, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public ConfluenceApiException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = 503;
+        this.retryAfter = null;
+    }
+
+    public static ConfluenceApiException of(HttpResponse response, String message) {
+        return new ConfluenceApiException(message, response.getCode(), retryAfter(response));
+    }
+
+    /**
+     * Throttling and gateway errors; other 4xx/5xx will not change on a second attempt
+     */
+    public boolean isRetryable() {
+        return status == 429 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Whether this failure says something about Confluence's health (counts toward the circuit breaker)
+     */
+    public boolean isServerSide() {
+        return status == 429 || status >= 500;
+    }
+
+    private static Duration retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null || header.getValue() == null) {
+            return null;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Duration.ofSeconds(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            Instant date = DateUtils.parseStandardDate(value);
+            if (date == null) {
+                return null;
+            }
+            Duration wait = Duration.between(Instant.now(), date);
+            return wait.isNegative() ? Duration.ZERO : wait;
+        }
+    }
+}
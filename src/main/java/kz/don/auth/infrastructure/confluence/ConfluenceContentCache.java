@@ -0,0 +1,278 @@
+package kz.don.auth.infrastructure.confluence;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.infrastructure.messaging.InvalidationBus;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import kz.don.auth.web.dto.ConfluencePageDTO;
+import kz.don.auth.web.dto.response.ConfluenceSearchResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache for Confluence pages, spaces and CQL search results.
+ * Pages older than pageCacheRevalidateAfterMs are revalidated with a version-only request and
+ * reused when the version number has not moved; our own page writes evict entries directly.
+ * Cached pages are stored and handed out as copies, so a caller changing its page cannot alter the cache.
+ * Searches are single-flight: concurrent identical searches wait on one remote call, and each caller
+ * gets its own copy of the response.
+ * Page and search evictions are also published on the {@link InvalidationBus} so the other
+ * replicas drop their copies.
+ */
+@Slf4j
+@Component
+public class ConfluenceContentCache {
+
+    public static final String PAGES = "confluence.pages";
+    public static final String SPACES = "confluence.spaces";
+    public static final String SEARCHES = "confluence.searches";
+
+    private final Cache<String, CachedPage> pages;
+    private final Cache<String, Object> spaces;
+    private final AsyncCache<SearchKey, ConfluenceSearchResponseDTO> searches;
+    private final long revalidateAfterNanos;
+    private final AuthMetrics authMetrics;
+    private final InvalidationBus invalidationBus;
+
+    public ConfluenceContentCache(ConfluenceProperties properties, AuthMetrics authMetrics,
+                                  InvalidationBus invalidationBus) {
+        this.authMetrics = authMetrics;
+        this.invalidationBus = invalidationBus;
+        this.revalidateAfterNanos = Duration.ofMillis(properties.getPageCacheRevalidateAfterMs()).toNanos();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(properties.getPageCacheMaxSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getPageCacheTtlMs()))
+                .build();
+        this.spaces = Caffeine.newBuilder()
+                .maximumSize(properties.getSpaceCacheMaxSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getSpaceCacheTtlMs()))
+                .build();
+
+        this.searches = Caffeine.newBuilder()
+                .maximumSize(properties.getSearchCacheMaxSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getSearchCacheTtlMs()))
+                .buildAsync();
+
+        Gauge.builder("confluence.cache.size", pages, Cache::estimatedSize)
+                .tag("cache", PAGES)
+                .register(authMetrics.getRegistry());
+        Gauge.builder("confluence.cache.size", spaces, Cache::estimatedSize)
+                .tag("cache", SPACES)
+                .register(authMetrics.getRegistry());
+        Gauge.builder("confluence.cache.size", searches, cache -> cache.synchronous().estimatedSize())
+                .tag("cache", SEARCHES)
+                .register(authMetrics.getRegistry());
+
+        invalidationBus.subscribe(PAGES, pages::invalidateAll, () -> {
+            pages.invalidateAll();
+            spaces.invalidateAll();
+        });
+        invalidationBus.subscribe(SEARCHES, keys -> searches.synchronous().invalidateAll(),
+                () -> searches.synchronous().invalidateAll());
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    /**
+     * @param pageLoader    full fetch of the page
+     * @param versionLoader cheap fetch of the page's current version number
+     */
+    public ConfluencePageDTO getPage(String pageId,
+                                     Loader<ConfluencePageDTO> pageLoader,
+                                     Loader<Integer> versionLoader) throws IOException {
+        CachedPage cached = pages.getIfPresent(pageId);
+        if (cached != null) {
+            if (System.nanoTime() - cached.fetchedAtNanos() < revalidateAfterNanos) {
+                authMetrics.recordCacheHit(PAGES);
+                return cached.page().copy();
+            }
+
+            Integer currentVersion = versionLoader.load();
+            if (currentVersion != null && currentVersion.equals(cached.version())) {
+                pages.put(pageId, new CachedPage(cached.page(), cached.version(), System.nanoTime()));
+                authMetrics.recordCacheRevalidated(PAGES);
+                return cached.page().copy();
+            }
+            log.debug("Cached page {} is at version {}, upstream has {}", pageId, cached.version(), currentVersion);
+        }
+
+        authMetrics.recordCacheMiss(PAGES);
+        ConfluencePageDTO page = pageLoader.load();
+        putPage(page);
+        return page;
+    }
+
+    public void putPage(ConfluencePageDTO page) {
+        if (page == null || page.getId() == null) {
+            return;
+        }
+        Integer version = page.getVersion() != null ? page.getVersion().getNumber() : null;
+        pages.put(page.getId(), new CachedPage(page.copy(), version, System.nanoTime()));
+    }
+
+    public void invalidatePage(String pageId) {
+        if (pageId != null) {
+            pages.invalidate(pageId);
+            invalidationBus.publish(PAGES, pageId);
+        }
+    }
+
+    /**
+     * Spaces change rarely and carry no version, so they are cached for spaceCacheTtlMs only
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getSpaces(String key, Loader<T> loader) throws IOException {
+        Object cached = spaces.getIfPresent(key);
+        if (cached != null) {
+            authMetrics.recordCacheHit(SPACES);
+            return (T) cached;
+        }
+
+        authMetrics.recordCacheMiss(SPACES);
+        T value = loader.load();
+        if (value != null) {
+            spaces.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Blocking single-flight search: the first caller for a key runs the loader on its own thread,
+     * later callers wait for that result. A failed load, whatever it throws, fails the waiters too
+     * and is dropped from the cache
+     */
+    public ConfluenceSearchResponseDTO getSearch(SearchKey key, Loader<ConfluenceSearchResponseDTO> loader)
+            throws IOException {
+        CompletableFuture<ConfluenceSearchResponseDTO> created = new CompletableFuture<>();
+        CompletableFuture<ConfluenceSearchResponseDTO> existing = searches.asMap().putIfAbsent(key, created);
+        if (existing != null) {
+            recordShared(existing);
+            return await(existing).copy();
+        }
+
+        authMetrics.recordCacheMiss(SEARCHES);
+        try {
+            ConfluenceSearchResponseDTO result = loader.load();
+            created.complete(result);
+            return result.copy();
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+            searches.asMap().remove(key, created);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking single-flight search, sharing entries with {@link #getSearch}
+     */
+    public CompletableFuture<ConfluenceSearchResponseDTO> getSearchAsync(
+            SearchKey key, Supplier<CompletableFuture<ConfluenceSearchResponseDTO>> loader) {
+        CompletableFuture<ConfluenceSearchResponseDTO> existing = searches.getIfPresent(key);
+        if (existing != null) {
+            recordShared(existing);
+            return existing.thenApply(ConfluenceSearchResponseDTO::copy);
+        }
+        return searches.get(key, (k, executor) -> {
+            authMetrics.recordCacheMiss(SEARCHES);
+            return loader.get();
+        }).thenApply(ConfluenceSearchResponseDTO::copy);
+    }
+
+    /**
+     * Our own writes change what searches return; drop cached results so the writer sees them
+     */
+    public void invalidateSearches() {
+        searches.synchronous().invalidateAll();
+        invalidationBus.publishAll(SEARCHES);
+    }
+
+    public void invalidateAll() {
+        pages.invalidateAll();
+        spaces.invalidateAll();
+        searches.synchronous().invalidateAll();
+    }
+
+    private void recordShared(CompletableFuture<?> future) {
+        if (future.isDone()) {
+            authMetrics.recordCacheHit(SEARCHES);
+        } else {
+            authMetrics.recordCacheCoalesced(SEARCHES);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a shared Confluence search", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Search cache key: CQL with whitespace outside quoted strings collapsed, plus paging.
+     * Quoted literals are kept as written, since "a  b" and "a b" are different searches
+     */
+    public record SearchKey(String cql, int start, int limit) {
+
+        public static SearchKey of(String cql, Integer start, Integer limit) {
+            return new SearchKey(normalize(cql), start != null ? start : 0, limit != null ? limit : 0);
+        }
+
+        static String normalize(String cql) {
+            StringBuilder normalized = new StringBuilder(cql.length());
+            char quote = 0;
+            boolean space = false;
+            for (int i = 0; i < cql.length(); i++) {
+                char c = cql.charAt(i);
+                if (quote != 0) {
+                    normalized.append(c);
+                    if (c == '\\' && i + 1 < cql.length()) {
+                        normalized.append(cql.charAt(++i));
+                    } else if (c == quote) {
+                        quote = 0;
+                    }
+                } else if (Character.isWhitespace(c)) {
+                    space = !normalized.isEmpty();
+                } else {
+                    if (space) {
+                        normalized.append(' ');
+                        space = false;
+                    }
+                    if (c == '"' || c == '\'') {
+                        quote = c;
+                    }
+                    normalized.append(c);
+                }
+            }
+            return normalized.toString();
+        }
+    }
+
+    private record CachedPage(ConfluencePageDTO page, Integer version, long fetchedAtNanos) {
+    }
+}
@@ -0,0 +1,80 @@
+package kz.don.auth.infrastructure.confluence;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import kz.don.auth.web.dto.ConfluencePageDTO;
+import kz.don.auth.web.dto.ConfluenceSpaceDTO;
+import kz.don.auth.web.dto.response.ConfluenceSearchResponseDTO;
+import org.apache.hc.core5.http.HttpEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Jackson readers and writers for the Confluence REST payloads, resolved once against the
+ * shared ObjectMapper instead of per call. ObjectReader/ObjectWriter are immutable and thread-safe.
+ */
+@Component
+public class ConfluenceJson {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader pageReader;
+    private final ObjectReader searchReader;
+    private final ObjectReader spaceReader;
+    private final ObjectReader spacePageReader;
+    private final ObjectReader createdPageReader;
+    private final ObjectWriter payloadWriter;
+
+    public ConfluenceJson(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.pageReader = objectMapper.readerFor(ConfluencePageDTO.class);
+        this.searchReader = objectMapper.readerFor(ConfluenceSearchResponseDTO.class);
+        this.spaceReader = objectMapper.readerFor(ConfluenceSpaceDTO.class);
+        this.spacePageReader = objectMapper.readerFor(ConfluenceSpaceDTO.Page.class);
+        this.createdPageReader = objectMapper.readerFor(CreatedPage.class);
+        this.payloadWriter = objectMapper.writerFor(ContentPayload.class);
+    }
+
+    public ObjectReader pages() {
+        return pageReader;
+    }
+
+    public ObjectReader searchResults() {
+        return searchReader;
+    }
+
+    public ObjectReader spaces() {
+        return spaceReader;
+    }
+
+    public ObjectReader spacePages() {
+        return spacePageReader;
+    }
+
+    public ObjectReader createdPages() {
+        return createdPageReader;
+    }
+
+    public HttpEntity entity(ContentPayload payload) {
+        return new JsonEntity(payloadWriter, payload);
+    }
+
+    public HttpEntity streamingPage(String title, String spaceKey, String parentPageId, InputStream content) {
+        return new StreamingPageEntity(objectMapper.getFactory(), title, spaceKey, parentPageId, content);
+    }
+
+    /**
+     * Serialized payload for the async client, which sends buffered bodies
+     */
+    public byte[] bytes(ContentPayload payload) throws JsonProcessingException {
+        return payloadWriter.writeValueAsBytes(payload);
+    }
+
+    public JsonParser parser(InputStream content) throws IOException {
+        return objectMapper.createParser(content);
+    }
+}
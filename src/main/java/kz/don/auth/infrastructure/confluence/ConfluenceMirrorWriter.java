@@ -0,0 +1,152 @@
+package kz.don.auth.infrastructure.confluence;
+
+import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.infrastructure.messaging.InvalidationBus;
+import kz.don.auth.web.dto.ConfluencePageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Writes pages into the confluence_pages mirror and {@link ConfluenceSearchIndex} together, for both
+ * the sync passes and our own page writes, so a page we create or edit is searchable locally at once
+ * rather than after the next pass. A row is only replaced by the same or a newer version.
+ * Removals are published on the {@link InvalidationBus} so every replica drops them from its index.
+ */
+@Slf4j
+@Component
+public class ConfluenceMirrorWriter {
+
+    // invalidation topic; keys are ids of pages removed from the mirror
+    public static final String REMOVED_TOPIC = "confluence.mirror.removed";
+
+    private static final String UPSERT_SQL = "INSERT INTO confluence_pages " +
+            "(id, space_key, title, version, content, webui, last_modified, synced_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET space_key = EXCLUDED.space_key, title = EXCLUDED.title, " +
+            "version = EXCLUDED.version, content = EXCLUDED.content, webui = EXCLUDED.webui, " +
+            "last_modified = EXCLUDED.last_modified, synced_at = EXCLUDED.synced_at " +
+            "WHERE confluence_pages.version <= EXCLUDED.version";
+    private static final String DELETE_SQL = "DELETE FROM confluence_pages WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConfluenceProperties properties;
+    private final ConfluenceSearchIndex searchIndex;
+    private final InvalidationBus invalidationBus;
+
+    public ConfluenceMirrorWriter(JdbcTemplate jdbcTemplate, ConfluenceProperties properties,
+                                  ConfluenceSearchIndex searchIndex, InvalidationBus invalidationBus) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.searchIndex = searchIndex;
+        this.invalidationBus = invalidationBus;
+
+        // a missed removal leaves an unknown set of stale docs: rebuild the index before the next sync
+        invalidationBus.subscribe(REMOVED_TOPIC, pageIds -> pageIds.forEach(searchIndex::remove), searchIndex::clear);
+    }
+
+    /**
+     * Bring the mirror in line with a page we just created or updated: stored and indexed when its space
+     * is mirrored, removed when it is not (it may have been moved out). Pages returned without a body
+     * or space are left to the next sync pass
+     */
+    public void pageWritten(ConfluencePageDTO page) {
+        if (!properties.isMirrorEnabled() || page == null || page.getId() == null
+                || page.getSpace() == null || page.getSpace().getKey() == null) {
+            return;
+        }
+        if (!isMirrored(spaceKey(page))) {
+            remove(List.of(page.getId()));
+        } else if (page.getBody() != null && page.getBody().getStorage() != null) {
+            upsert(List.of(page), Instant.now());
+        }
+    }
+
+    /**
+     * Upsert pages as written at syncedAt and feed them to the search index
+     */
+    public void upsert(List<ConfluencePageDTO> pages, Instant syncedAt) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        Timestamp synced = Timestamp.from(syncedAt);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, pages, pages.size(), (ps, page) -> {
+            ps.setString(1, page.getId());
+            ps.setString(2, spaceKey(page));
+            ps.setString(3, page.getTitle());
+            ps.setInt(4, version(page));
+            ps.setString(5, content(page));
+            ps.setString(6, page.getLinks() != null ? page.getLinks().getWebui() : null);
+            ps.setTimestamp(7, Timestamp.from(lastModified(page, syncedAt)));
+            ps.setTimestamp(8, synced);
+        });
+        for (ConfluencePageDTO page : pages) {
+            searchIndex.index(page.getId(), spaceKey(page), page.getTitle(), content(page), version(page));
+        }
+    }
+
+    /**
+     * Delete pages from the mirror and from every replica's search index
+     *
+     * @return number of rows deleted
+     */
+    public int remove(List<String> pageIds) {
+        if (pageIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = 0;
+        for (int[] counts : jdbcTemplate.batchUpdate(DELETE_SQL, pageIds, 500, (ps, id) -> ps.setString(1, id))) {
+            for (int count : counts) {
+                deleted += Math.max(count, 0);
+            }
+        }
+        if (deleted > 0) {
+            for (String id : pageIds) {
+                searchIndex.remove(id);
+                invalidationBus.publish(REMOVED_TOPIC, id);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Whether pages of spaceKey are mirrored: all are when mirrorSpaceKeys is empty
+     */
+    public boolean isMirrored(String spaceKey) {
+        List<String> spaceKeys = properties.getMirrorSpaceKeys();
+        return spaceKeys == null || spaceKeys.isEmpty() || spaceKeys.contains(spaceKey);
+    }
+
+    /**
+     * version.when of the page, or fallback when it is missing or unparseable
+     */
+    public static Instant lastModified(ConfluencePageDTO page, Instant fallback) {
+        if (page.getVersion() == null || page.getVersion().getWhen() == null) {
+            return fallback;
+        }
+        try {
+            return OffsetDateTime.parse(page.getVersion().getWhen()).toInstant();
+        } catch (DateTimeParseException e) {
+            return fallback;
+        }
+    }
+
+    private static String spaceKey(ConfluencePageDTO page) {
+        return page.getSpace() != null && page.getSpace().getKey() != null ? page.getSpace().getKey() : "";
+    }
+
+    private static int version(ConfluencePageDTO page) {
+        return page.getVersion() != null && page.getVersion().getNumber() != null ? page.getVersion().getNumber() : 0;
+    }
+
+    private static String content(ConfluencePageDTO page) {
+        return page.getBody() != null && page.getBody().getStorage() != null
+                ? page.getBody().getStorage().getValue() : null;
+    }
+}
@@ -0,0 +1,134 @@
+package kz.don.auth.infrastructure.confluence;
+
+import kz.don.auth.config.ConfluenceProperties;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.classic.methods.HttpPut;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.message.BasicHeader;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Everything per-request that only depends on the connection settings, computed once:
+ * the Basic Authorization header, the parsed base URI and the REST API prefix.
+ * Immutable; {@link ConfluenceRequestTemplates} swaps in a new instance when the settings change.
+ */
+public final class ConfluenceRequestTemplate {
+
+    public static final String EXPAND_PAGE = "body.storage,version,space";
+    public static final String EXPAND_SPACE = "description.plain,homepage";
+
+    private static final String API_PATH = "/rest/api";
+
+    // source values, kept to detect property changes by reference
+    private final String baseUrl;
+    private final String username;
+    private final String apiToken;
+
+    private final URI baseUri;
+    private final String apiPrefix;
+    private final Header authorization;
+
+    private ConfluenceRequestTemplate(String baseUrl, String username, String apiToken) {
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.apiToken = apiToken;
+        this.baseUri = baseUrl != null ? URI.create(baseUrl) : null;
+        this.apiPrefix = baseUrl + API_PATH;
+        String credentials = username + ":" + apiToken;
+        this.authorization = new BasicHeader(HttpHeaders.AUTHORIZATION,
+                "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static ConfluenceRequestTemplate of(ConfluenceProperties properties) {
+        return new ConfluenceRequestTemplate(properties.getBaseUrl(), properties.getUsername(), properties.getApiToken());
+    }
+
+    /**
+     * Whether this template was built from the properties' current values. While nothing is rebound the
+     * properties still hold the very instances the template was built from, so equals returns on identity
+     */
+    boolean isCurrent(ConfluenceProperties properties) {
+        return Objects.equals(properties.getBaseUrl(), baseUrl)
+                && Objects.equals(properties.getUsername(), username)
+                && Objects.equals(properties.getApiToken(), apiToken);
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public String getAuthorization() {
+        return authorization.getValue();
+    }
+
+    /**
+     * URL under the REST API, e.g. {@code api("/content").path(pageId).query("expand", EXPAND_PAGE)}
+     */
+    public UrlBuilder api(String path) {
+        return new UrlBuilder(apiPrefix, path);
+    }
+
+    /**
+     * Absolute URL for a relative link returned by Confluence (_links.webui, _links.next)
+     */
+    public String link(String relativePath) {
+        return baseUrl + relativePath;
+    }
+
+    public HttpGet get(String url) {
+        HttpGet request = new HttpGet(url);
+        request.setHeader(authorization);
+        return request;
+    }
+
+    public HttpPost post(String url) {
+        HttpPost request = new HttpPost(url);
+        request.setHeader(authorization);
+        return request;
+    }
+
+    public HttpPut put(String url) {
+        HttpPut request = new HttpPut(url);
+        request.setHeader(authorization);
+        return request;
+    }
+
+    public static final class UrlBuilder {
+
+        private final StringBuilder url;
+        private char separator = '?';
+
+        private UrlBuilder(String prefix, String path) {
+            this.url = new StringBuilder(prefix.length() + path.length() + 96).append(prefix).append(path);
+        }
+
+        public UrlBuilder path(String segment) {
+            url.append('/').append(segment);
+            return this;
+        }
+
+        /**
+         * Append a query parameter whose value is already URL-safe (numbers, keys, expand lists)
+         */
+        public UrlBuilder query(String name, Object value) {
+            url.append(separator).append(name).append('=').append(value);
+            separator = '&';
+            return this;
+        }
+
+        public UrlBuilder encodedQuery(String name, String value) {
+            return query(name, URLEncoder.encode(value, StandardCharsets.UTF_8));
+        }
+
+        public String build() {
+            return url.toString();
+        }
+    }
+}
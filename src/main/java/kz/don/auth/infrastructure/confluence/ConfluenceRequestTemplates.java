@@ -0,0 +1,29 @@
+package kz.don.auth.infrastructure.confluence;
+
+import kz.don.auth.config.ConfluenceProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out the current {@link ConfluenceRequestTemplate}, rebuilding it when the base URL or
+ * credentials in {@link ConfluenceProperties} are rebound (e.g. a config refresh rotating the API token)
+ */
+@Component
+public class ConfluenceRequestTemplates {
+
+    private final ConfluenceProperties properties;
+    private volatile ConfluenceRequestTemplate current;
+
+    public ConfluenceRequestTemplates(ConfluenceProperties properties) {
+        this.properties = properties;
+        this.current = ConfluenceRequestTemplate.of(properties);
+    }
+
+    public ConfluenceRequestTemplate current() {
+        ConfluenceRequestTemplate template = current;
+        if (!template.isCurrent(properties)) {
+            template = ConfluenceRequestTemplate.of(properties);
+            current = template;
+        }
+        return template;
+    }
+}
@@ -0,0 +1,248 @@
+package kz.don.auth.infrastructure.confluence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.core.functions.CheckedSupplier;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kz.don.auth.config.ConfluenceProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Failure isolation for outbound Confluence calls, so a slow or failing Confluence cannot tie up
+ * our request threads:
+ * <ul>
+ *     <li>one circuit breaker for Confluence as a whole, opened by server-side errors and slow calls;</li>
+ *     <li>a semaphore bulkhead per operation, bounding how many threads can wait on each call type;
+ *     non-blocking fan-outs are bounded by {@link #executeAllAsync} instead;</li>
+ *     <li>retries for idempotent calls only, on I/O errors other than malformed JSON, 429 and gateway
+ *     errors, with jittered exponential backoff, or the server's Retry-After when it sent one.</li>
+ * </ul>
+ * Calls refused locally (open circuit, full bulkhead) surface as a 503 {@link ConfluenceApiException}.
+ */
+@Slf4j
+@Component
+public class ConfluenceResilience {
+
+    public static final String CIRCUIT_BREAKER = "confluence";
+
+    private final CircuitBreaker circuitBreaker;
+    private final BulkheadRegistry bulkheads;
+    private final RetryRegistry retries;
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws IOException;
+    }
+
+    public ConfluenceResilience(ConfluenceProperties properties, MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getCircuitFailureRateThreshold())
+                .slowCallRateThreshold(properties.getCircuitSlowCallRateThreshold())
+                .slowCallDurationThreshold(Duration.ofMillis(properties.getCircuitSlowCallThresholdMs()))
+                .slidingWindowSize(properties.getCircuitSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getCircuitMinimumCalls())
+                .waitDurationInOpenState(Duration.ofMillis(properties.getCircuitOpenStateMs()))
+                .recordException(ConfluenceResilience::isServerFailure)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(CIRCUIT_BREAKER);
+
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getBulkheadMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ofMillis(properties.getBulkheadMaxWaitMs()))
+                .build());
+
+        long maxRetryAfterMs = properties.getRetryMaxRetryAfterMs();
+        IntervalFunction backoff = IntervalFunction.ofExponentialRandomBackoff(
+                Duration.ofMillis(properties.getRetryInitialBackoffMs()), 2.0, 0.5);
+        this.retries = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(properties.getRetryMaxAttempts())
+                .retryOnException(e -> isRetryable(e, maxRetryAfterMs))
+                .intervalBiFunction((attempt, result) -> {
+                    if (result.isLeft() && result.getLeft() instanceof ConfluenceApiException api
+                            && api.getRetryAfter() != null) {
+                        return api.getRetryAfter().toMillis();
+                    }
+                    return backoff.apply(attempt);
+                })
+                .build());
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        TaggedRetryMetrics.ofRetryRegistry(retries).bindTo(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Confluence circuit breaker {}", event.getStateTransition());
+            Counter.builder("confluence.circuit.transitions")
+                    .description("Confluence circuit breaker state transitions")
+                    .tag("from", event.getStateTransition().getFromState().name())
+                    .tag("to", event.getStateTransition().getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+        });
+    }
+
+    /**
+     * Run a blocking call through the operation's bulkhead and the circuit breaker, retrying it when idempotent
+     */
+    public <T> T execute(String operation, boolean idempotent, Call<T> call) throws IOException {
+        CheckedSupplier<T> supplier = call::call;
+        supplier = Bulkhead.decorateCheckedSupplier(bulkheads.bulkhead(operation), supplier);
+        supplier = CircuitBreaker.decorateCheckedSupplier(circuitBreaker, supplier);
+        if (idempotent) {
+            supplier = Retry.decorateCheckedSupplier(retries.retry(operation), supplier);
+        }
+
+        try {
+            return supplier.get();
+        } catch (CallNotPermittedException e) {
+            throw new ConfluenceApiException("Confluence is unavailable (circuit open)", e);
+        } catch (BulkheadFullException e) {
+            throw new ConfluenceApiException("Too many concurrent Confluence " + operation + " calls", e);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IOException(t);
+        }
+    }
+
+    /**
+     * Non-blocking calls hold no thread while waiting, so they only go through the circuit breaker
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        return circuitBreaker.executeCompletionStage(call::get)
+                .toCompletableFuture()
+                .exceptionallyCompose(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    return CompletableFuture.failedFuture(cause instanceof CallNotPermittedException
+                            ? new ConfluenceApiException("Confluence is unavailable (circuit open)", cause)
+                            : cause);
+                });
+    }
+
+    /**
+     * Start call for every item with at most maxConcurrent in flight, starting the next one as each
+     * completes, so a large fan-out neither holds threads nor floods the connection pool.
+     * Results keep the input order; the returned future fails with the first failure once every call
+     * has finished, so callers that want per-item errors should handle them inside call
+     */
+    public <I, T> CompletableFuture<List<T>> executeAllAsync(List<I> items, int maxConcurrent,
+                                                             Function<I, CompletableFuture<T>> call) {
+        FanOut<I, T> fanOut = new FanOut<>(items, call);
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        for (int lane = 0; lane < Math.max(1, Math.min(maxConcurrent, items.size())); lane++) {
+            fanOut.next();
+        }
+        return fanOut.result;
+    }
+
+    private static final class FanOut<I, T> {
+
+        private final List<I> items;
+        private final Function<I, CompletableFuture<T>> call;
+        private final Object[] results;
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger pending;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final CompletableFuture<List<T>> result = new CompletableFuture<>();
+
+        private FanOut(List<I> items, Function<I, CompletableFuture<T>> call) {
+            this.items = items;
+            this.call = call;
+            this.results = new Object[items.size()];
+            this.pending = new AtomicInteger(items.size());
+        }
+
+        /**
+         * Run one lane: start items until one is still in flight, then continue from its completion.
+         * Looping over calls that completed at once keeps the stack flat
+         */
+        private void next() {
+            while (true) {
+                int index = started.getAndIncrement();
+                if (index >= items.size()) {
+                    return;
+                }
+                CompletableFuture<T> future;
+                try {
+                    future = call.apply(items.get(index));
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                if (!future.isDone()) {
+                    future.whenComplete((value, error) -> {
+                        finish(index, value, error);
+                        next();
+                    });
+                    return;
+                }
+                future.handle((value, error) -> {
+                    finish(index, value, error);
+                    return null;
+                });
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void finish(int index, T value, Throwable error) {
+            if (error != null) {
+                failure.compareAndSet(null, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                results[index] = value;
+            }
+            if (pending.decrementAndGet() == 0) {
+                if (failure.get() != null) {
+                    result.completeExceptionally(failure.get());
+                } else {
+                    result.complete((List<T>) Arrays.asList(results));
+                }
+            }
+        }
+    }
+
+    private static boolean isServerFailure(Throwable e) {
+        if (e instanceof ConfluenceApiException api) {
+            return api.isServerSide();
+        }
+        return e instanceof IOException;
+    }
+
+    private static boolean isRetryable(Throwable e, long maxRetryAfterMs) {
+        if (e instanceof ConfluenceApiException api) {
+            return api.isRetryable()
+                    && (api.getRetryAfter() == null || api.getRetryAfter().toMillis() <= maxRetryAfterMs);
+        }
+        return e instanceof IOException && !(e instanceof JsonProcessingException);
+    }
+}
@@ -0,0 +1,317 @@
+package kz.don.auth.infrastructure.confluence;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over mirrored Confluence pages, ranked with BM25.
+ * Postings are parallel int arrays (doc ids ascending, term frequencies) so a large index stays
+ * a few arrays per term rather than boxed objects per occurrence. Every page version gets a fresh
+ * doc id; replaced or removed docs are tombstoned and dropped by compaction once they make up a
+ * quarter of the index. Queries are conjunctive: a page must contain every query term.
+ */
+@Component
+public class ConfluenceSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    // title terms count as this many body occurrences
+    private static final int TITLE_WEIGHT = 3;
+    private static final int MIN_COMPACTION_DOCS = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docIds = new HashMap<>(); // page id -> live doc id
+    private String[] pageIds = new String[1024];
+    private String[] spaceKeys = new String[1024];
+    private int[] versions = new int[1024];
+    private int[] lengths = new int[1024];
+    private BitSet deleted = new BitSet();
+    private int docCount;
+    private int liveDocs;
+    private long totalLength; // of live docs
+
+    private volatile boolean ready;
+
+    /**
+     * Add or replace a page. Older versions than the one already indexed are ignored
+     *
+     * @return whether the index changed
+     */
+    public boolean index(String pageId, String spaceKey, String title, String storage, int version) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : StorageText.tokenize(title)) {
+            frequencies.computeIfAbsent(term, t -> new int[1])[0] += TITLE_WEIGHT;
+            length += TITLE_WEIGHT;
+        }
+        for (String term : StorageText.tokenize(StorageText.strip(storage))) {
+            frequencies.computeIfAbsent(term, t -> new int[1])[0]++;
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = docIds.get(pageId);
+            if (existing != null) {
+                if (versions[existing] > version) {
+                    return false;
+                }
+                delete(existing);
+            }
+
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            pageIds[doc] = pageId;
+            spaceKeys[doc] = spaceKey;
+            versions[doc] = version;
+            lengths[doc] = length;
+            docIds.put(pageId, doc);
+            liveDocs++;
+            totalLength += length;
+
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new Postings()).add(doc, entry.getValue()[0]);
+            }
+
+            if (docCount >= MIN_COMPACTION_DOCS && deleted.cardinality() * 4 > docCount) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String pageId) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = docIds.remove(pageId);
+            if (existing != null) {
+                delete(existing);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop everything and mark the index as not ready, before a rebuild
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            postings.clear();
+            docIds.clear();
+            Arrays.fill(pageIds, 0, docCount, null);
+            Arrays.fill(spaceKeys, 0, docCount, null);
+            deleted = new BitSet();
+            docCount = 0;
+            liveDocs = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pages containing every term, best first
+     *
+     * @param spaceKey only pages in this space, or null for all
+     */
+    public List<Hit> search(List<String> terms, String spaceKey, int start, int limit) {
+        LinkedHashSet<String> unique = new LinkedHashSet<>(terms);
+        if (unique.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[unique.size()];
+            int n = 0;
+            for (String term : unique) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return List.of();
+                }
+                lists[n++] = list;
+            }
+            // drive the intersection from the rarest term
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            float[] idf = new float[lists.length];
+            for (int t = 0; t < lists.length; t++) {
+                int df = lists[t].size;
+                idf[t] = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+            }
+            float averageLength = liveDocs > 0 ? (float) totalLength / liveDocs : 1f;
+
+            int wanted = start + limit;
+            PriorityQueue<Hit> top = new PriorityQueue<>(wanted + 1, Comparator.comparingDouble(Hit::score));
+            int[] cursors = new int[lists.length];
+
+            Postings rarest = lists[0];
+            candidates:
+            for (int i = 0; i < rarest.size; i++) {
+                int doc = rarest.docs[i];
+                if (deleted.get(doc) || (spaceKey != null && !spaceKey.equals(spaceKeys[doc]))) {
+                    continue;
+                }
+                float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                float tf = rarest.freqs[i];
+                float score = idf[0] * tf * (K1 + 1) / (tf + norm);
+
+                for (int t = 1; t < lists.length; t++) {
+                    Postings list = lists[t];
+                    int position = list.advance(cursors[t], doc);
+                    cursors[t] = position;
+                    if (position == list.size || list.docs[position] != doc) {
+                        continue candidates;
+                    }
+                    tf = list.freqs[position];
+                    score += idf[t] * tf * (K1 + 1) / (tf + norm);
+                }
+
+                if (top.size() < wanted) {
+                    top.add(new Hit(pageIds[doc], score));
+                } else if (score > top.peek().score()) {
+                    top.poll();
+                    top.add(new Hit(pageIds[doc], score));
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(Comparator.comparingDouble(Hit::score).reversed());
+            return start >= ranked.size() ? List.of() : List.copyOf(ranked.subList(start, ranked.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void delete(int doc) {
+        if (!deleted.get(doc)) {
+            deleted.set(doc);
+            liveDocs--;
+            totalLength -= lengths[doc];
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > pageIds.length) {
+            int grown = Math.max(capacity, pageIds.length * 2);
+            pageIds = Arrays.copyOf(pageIds, grown);
+            spaceKeys = Arrays.copyOf(spaceKeys, grown);
+            versions = Arrays.copyOf(versions, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+        }
+    }
+
+    /**
+     * Renumber live docs densely and drop tombstoned postings; doc order, and so postings order, is kept
+     */
+    private void compact() {
+        int[] remap = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                remap[doc] = -1;
+                pageIds[doc] = null;
+                spaceKeys[doc] = null;
+            } else {
+                int target = next++;
+                remap[doc] = target;
+                pageIds[target] = pageIds[doc];
+                spaceKeys[target] = spaceKeys[doc];
+                versions[target] = versions[doc];
+                lengths[target] = lengths[doc];
+                docIds.put(pageIds[target], target);
+            }
+        }
+        Arrays.fill(pageIds, next, docCount, null);
+        Arrays.fill(spaceKeys, next, docCount, null);
+
+        postings.values().removeIf(list -> list.retain(remap) == 0);
+        docCount = next;
+        deleted = new BitSet();
+    }
+
+    public record Hit(String pageId, float score) {
+    }
+
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        /**
+         * First position at or after from whose doc is >= target (galloping, then binary search)
+         */
+        int advance(int from, int target) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && docs[high] < target) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            int position = Arrays.binarySearch(docs, low, high, target);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        int retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package kz.don.auth.infrastructure.confluence;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Body of POST/PUT /rest/api/content
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContentPayload(
+        String type,
+        String title,
+        Space space,
+        Body body,
+        List<Ancestor> ancestors,
+        Version version) {
+
+    private static final String PAGE = "page";
+
+    public static ContentPayload create(String title, String spaceKey, String content, String representation,
+                                        String parentPageId) {
+        List<Ancestor> ancestors = parentPageId != null && !parentPageId.isEmpty()
+                ? List.of(new Ancestor(parentPageId)) : null;
+        return new ContentPayload(PAGE, title, new Space(spaceKey),
+                new Body(new Storage(content, representation)), ancestors, null);
+    }
+
+    public static ContentPayload update(String title, String content, int nextVersion) {
+        return new ContentPayload(PAGE, title, null,
+                new Body(new Storage(content, "storage")), null, new Version(nextVersion));
+    }
+
+    public record Space(String key) {
+    }
+
+    public record Body(Storage storage) {
+    }
+
+    public record Storage(String value, String representation) {
+    }
+
+    public record Ancestor(String id) {
+    }
+
+    public record Version(int number) {
+    }
+}
@@ -0,0 +1,16 @@
+package kz.don.auth.infrastructure.confluence;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Create-page response without the echoed body, so a large page is skipped by the parser
+ * instead of being read back into memory
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CreatedPage(String id, String title, @JsonProperty("_links") Links links) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Links(String webui) {
+    }
+}
@@ -0,0 +1,91 @@
+package kz.don.auth.infrastructure.confluence;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Request entity that serializes its payload straight into the connection output stream,
+ * with no intermediate String or byte[]. Sent chunked since the length is not known upfront.
+ * Repeatable: a retry simply serializes the payload again.
+ */
+public class JsonEntity extends AbstractHttpEntity {
+
+    private final ObjectWriter writer;
+    private final Object payload;
+
+    public JsonEntity(ObjectWriter writer, Object payload) {
+        super(ContentType.APPLICATION_JSON, null, true);
+        this.writer = writer;
+        this.payload = payload;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        writer.writeValue(new NonClosingOutputStream(outStream), payload);
+    }
+
+    /**
+     * Only used by callers that pull the body instead of letting it be written (e.g. wire logging)
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(writer.writeValueAsBytes(payload));
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Jackson closes the target stream when writeValue finishes; the client owns the connection stream
+     */
+    private static final class NonClosingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+
+        private NonClosingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.flush();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package kz.don.auth.infrastructure.confluence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Plain text and search terms from Confluence storage format (XHTML with ac:/ri: macros).
+ * Markup is dropped, CDATA sections (code macro bodies) are kept, and the common character
+ * references are decoded; good enough for indexing, not a general HTML parser.
+ */
+public final class StorageText {
+
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private StorageText() {
+    }
+
+    public static String strip(String storage) {
+        if (storage == null || storage.isEmpty()) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder(storage.length());
+        int length = storage.length();
+        int i = 0;
+        while (i < length) {
+            char c = storage.charAt(i);
+            if (c == '<') {
+                if (storage.startsWith("<![CDATA[", i)) {
+                    int end = storage.indexOf("]]>", i + 9);
+                    int stop = end < 0 ? length : end;
+                    text.append(storage, i + 9, stop).append(' ');
+                    i = end < 0 ? length : end + 3;
+                } else {
+                    int end = storage.indexOf('>', i + 1);
+                    i = end < 0 ? length : end + 1;
+                    // tags separate words: "<p>a</p><p>b</p>" must not index "ab"
+                    text.append(' ');
+                }
+            } else if (c == '&') {
+                int end = storage.indexOf(';', i + 1);
+                if (end > 0 && end - i <= 10) {
+                    appendEntity(text, storage, i + 1, end);
+                    i = end + 1;
+                } else {
+                    text.append(c);
+                    i++;
+                }
+            } else {
+                text.append(c);
+                i++;
+            }
+        }
+        return text.toString();
+    }
+
+    private static void appendEntity(StringBuilder text, String source, int start, int end) {
+        String name = source.substring(start, end);
+        switch (name) {
+            case "amp" -> text.append('&');
+            case "lt" -> text.append('<');
+            case "gt" -> text.append('>');
+            case "quot" -> text.append('"');
+            case "apos" -> text.append('\'');
+            case "nbsp" -> text.append(' ');
+            default -> {
+                if (name.startsWith("#")) {
+                    try {
+                        int codePoint = name.startsWith("#x") || name.startsWith("#X")
+                                ? Integer.parseInt(name.substring(2), 16)
+                                : Integer.parseInt(name.substring(1));
+                        text.appendCodePoint(codePoint);
+                        return;
+                    } catch (IllegalArgumentException e) {
+                        // not a valid reference, fall through to a word break
+                    }
+                }
+                text.append(' ');
+            }
+        }
+    }
+
+    /**
+     * Lower-cased runs of letters and digits (any script); overly long runs are skipped
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,94 @@
+package kz.don.auth.infrastructure.confluence;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Create-page request body whose storage value is copied from an InputStream (UTF-8) into the
+ * connection while the JSON is generated, so the page content is never held in memory as a whole.
+ * One-shot: the source stream is consumed by the first write, hence not repeatable.
+ */
+public class StreamingPageEntity extends AbstractHttpEntity {
+
+    private final JsonFactory jsonFactory;
+    private final String title;
+    private final String spaceKey;
+    private final String parentPageId;
+    private final InputStream content;
+
+    public StreamingPageEntity(JsonFactory jsonFactory, String title, String spaceKey, String parentPageId,
+                               InputStream content) {
+        super(ContentType.APPLICATION_JSON, null, true);
+        this.jsonFactory = jsonFactory;
+        this.title = title;
+        this.spaceKey = spaceKey;
+        this.parentPageId = parentPageId;
+        this.content = content;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        try (Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8);
+             JsonGenerator generator = jsonFactory.createGenerator(outStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            generator.writeStartObject();
+            generator.writeStringField("type", "page");
+            generator.writeStringField("title", title);
+            generator.writeObjectFieldStart("space");
+            generator.writeStringField("key", spaceKey);
+            generator.writeEndObject();
+
+            generator.writeObjectFieldStart("body");
+            generator.writeObjectFieldStart("storage");
+            generator.writeFieldName("value");
+            generator.writeString(reader, -1);
+            generator.writeStringField("representation", "storage");
+            generator.writeEndObject();
+            generator.writeEndObject();
+
+            if (parentPageId != null && !parentPageId.isEmpty()) {
+                generator.writeArrayFieldStart("ancestors");
+                generator.writeStartObject();
+                generator.writeStringField("id", parentPageId);
+                generator.writeEndObject();
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("Streaming page body can only be written once");
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        content.close();
+    }
+}
@@ -47,6 +47,7 @@ public class AuditEventConsumer {
                     .action(request.getAction())
                     .entityType(request.getEntityType())
                     .timestamp(parseTimestamp(request.getTimestamp()))
+                    .details(serializeDetails(request.getDetails()))
                     .ipAddress(request.getIpAddress())
                     .serviceName(request.getServiceName())
                     .build();
@@ -0,0 +1,411 @@
+package kz.don.auth.infrastructure.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.autoconfigure.JdbcConnectionDetails;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Cluster-wide invalidation of in-process caches over Postgres LISTEN/NOTIFY.
+ * Callers invalidate their local copy themselves and publish the key; publications are coalesced
+ * for lingerMs and sent as a few batched NOTIFYs, one payload per topic and up to 8000 bytes each.
+ * Every node LISTENs on its own connection, opened outside the pool, and hands received keys to the
+ * topic's subscriber, skipping its own messages. A half-open connection looks just like a quiet
+ * channel, so every heartbeatPolls polls the listener runs SELECT 1 under a socket timeout and
+ * reconnects when it fails. Notifications sent while a node is not listening are lost, so after
+ * every (re)connect each subscriber is told to flush everything it holds.
+ * A topic with more than maxPendingKeys keys queued is collapsed to {@link #ALL}, and a batch that
+ * still fails after maxAttempts sends, with growing pauses in between, is dropped; the caches
+ * involved all expire entries on their own, so a lost invalidation only delays it.
+ */
+@Slf4j
+@Component
+public class InvalidationBus {
+
+    public static final String CHANNEL = "auth_invalidation";
+    // a key that stands for every key of the topic
+    public static final String ALL = "*";
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, payload) FROM unnest(?) AS payload";
+    // Postgres rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+    // bounds a heartbeat on a dead connection; getNotifications sets its own timeout while polling
+    private static final int LISTEN_SOCKET_TIMEOUT_S = 10;
+    // how long shutdown waits for the last batch to be sent
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+    private final DataSource dataSource;
+    private final JdbcConnectionDetails connectionDetails;
+    private final boolean enabled;
+    private final long lingerMs;
+    private final long pollMs;
+    private final int heartbeatPolls;
+    private final long reconnectDelayMs;
+    private final int maxAttempts;
+    private final int maxPendingKeys;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Counter sent;
+    private final Counter received;
+    private final Counter dropped;
+
+    private final Object pendingLock = new Object();
+    private Map<String, Set<String>> pending = new LinkedHashMap<>();
+    // consecutive failed sends of the queued batch; publisher thread only
+    private int failedAttempts;
+
+    private volatile boolean running;
+    private Thread publisher;
+    private Thread listener;
+
+    public InvalidationBus(
+            DataSource dataSource,
+            JdbcConnectionDetails connectionDetails,
+            AuthMetrics authMetrics,
+            @Value("${invalidation.enabled:true}") boolean enabled,
+            @Value("${invalidation.linger-ms:2}") long lingerMs,
+            @Value("${invalidation.poll-ms:500}") long pollMs,
+            @Value("${invalidation.heartbeat-polls:20}") int heartbeatPolls,
+            @Value("${invalidation.reconnect-delay-ms:1000}") long reconnectDelayMs,
+            @Value("${invalidation.max-attempts:5}") int maxAttempts,
+            @Value("${invalidation.max-pending-keys:10000}") int maxPendingKeys
+    ) {
+        this.dataSource = dataSource;
+        this.connectionDetails = connectionDetails;
+        this.enabled = enabled;
+        this.lingerMs = lingerMs;
+        this.pollMs = pollMs;
+        this.heartbeatPolls = heartbeatPolls;
+        this.reconnectDelayMs = reconnectDelayMs;
+        this.maxAttempts = maxAttempts;
+        this.maxPendingKeys = maxPendingKeys;
+        this.sent = Counter.builder("invalidation.notifications")
+                .description("Invalidation NOTIFY payloads by direction")
+                .tag("direction", "sent")
+                .register(authMetrics.getRegistry());
+        this.received = Counter.builder("invalidation.notifications")
+                .description("Invalidation NOTIFY payloads by direction")
+                .tag("direction", "received")
+                .register(authMetrics.getRegistry());
+        this.dropped = Counter.builder("invalidation.notifications")
+                .description("Invalidation NOTIFY payloads by direction")
+                .tag("direction", "dropped")
+                .register(authMetrics.getRegistry());
+    }
+
+    /**
+     * Register the handlers for a topic; both run on the listener thread and must be quick
+     *
+     * @param onKeys   drop the given keys
+     * @param onFlush  drop everything; called for {@link #ALL} and after reconnects
+     */
+    public void subscribe(String topic, Consumer<Set<String>> onKeys, Runnable onFlush) {
+        subscriptions.put(topic, new Subscription(onKeys, onFlush));
+    }
+
+    /**
+     * Tell the other nodes to drop key from topic. Call after the change is committed
+     */
+    public void publish(String topic, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        synchronized (pendingLock) {
+            queue(topic, List.of(key));
+            pendingLock.notifyAll();
+        }
+    }
+
+    public void publishAll(String topic) {
+        publish(topic, ALL);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Cluster cache invalidation disabled");
+            return;
+        }
+        running = true;
+        publisher = daemon("invalidation-publisher", this::publishLoop);
+        listener = daemon("invalidation-listener", this::listenLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        synchronized (pendingLock) {
+            pendingLock.notifyAll();
+        }
+        publisher.join(lingerMs + SHUTDOWN_TIMEOUT_MS);
+        listener.interrupt();
+    }
+
+    private void publishLoop() {
+        while (running) {
+            try {
+                synchronized (pendingLock) {
+                    while (running && pending.isEmpty()) {
+                        pendingLock.wait();
+                    }
+                }
+                // let a burst of invalidations (a bulk update, a page and its searches) share one NOTIFY
+                Thread.sleep(lingerMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!publishPending()) {
+                backOff(Math.min(reconnectDelayMs << Math.min(failedAttempts, 16), MAX_RETRY_DELAY_MS));
+            }
+        }
+        // shutting down: one last attempt for what is still queued
+        publishPending();
+    }
+
+    /**
+     * Wait before retrying a failed send; returns early when stop() is called so the final attempt
+     * is not cut short by the shutdown timeout. New publications do not end the wait
+     */
+    private void backOff(long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        synchronized (pendingLock) {
+            long remaining = millis;
+            while (running && remaining > 0) {
+                try {
+                    pendingLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * @return false if sending failed; the batch is then queued again, or dropped after maxAttempts
+     */
+    private boolean publishPending() {
+        Map<String, Set<String>> batch;
+        synchronized (pendingLock) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+        List<String> payloads = encode(batch);
+        try {
+            send(payloads);
+            failedAttempts = 0;
+            return true;
+        } catch (Exception e) {
+            failedAttempts++;
+            if (failedAttempts >= maxAttempts) {
+                log.error("Dropping {} invalidation payloads after {} failed attempts: {}",
+                        payloads.size(), failedAttempts, e.getMessage(), e);
+                dropped.increment(payloads.size());
+                failedAttempts = 0;
+            } else {
+                log.warn("Failed to publish invalidations (attempt {} of {}), retrying: {}",
+                        failedAttempts, maxAttempts, e.getMessage());
+                requeue(batch);
+            }
+            return false;
+        }
+    }
+
+    private void send(List<String> payloads) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(NOTIFY_SQL)) {
+            ps.setString(1, CHANNEL);
+            ps.setArray(2, connection.createArrayOf("text", payloads.toArray()));
+            ps.execute();
+        }
+        sent.increment(payloads.size());
+    }
+
+    private void requeue(Map<String, Set<String>> batch) {
+        synchronized (pendingLock) {
+            Map<String, Set<String>> newer = pending;
+            pending = batch;
+            newer.forEach(this::queue);
+        }
+    }
+
+    /**
+     * Add keys to the topic's pending set, collapsing it to ALL once it is, or would grow past, the cap.
+     * Caller holds pendingLock
+     */
+    private void queue(String topic, Collection<String> keys) {
+        Set<String> queued = pending.computeIfAbsent(topic, t -> new LinkedHashSet<>());
+        if (queued.contains(ALL)) {
+            return;
+        }
+        if (keys.contains(ALL) || queued.size() + keys.size() > maxPendingKeys) {
+            queued.clear();
+            queued.add(ALL);
+        } else {
+            queued.addAll(keys);
+        }
+    }
+
+    /**
+     * Payload: node id, topic, then one key per line. A topic whose keys do not fit one payload is split
+     */
+    private List<String> encode(Map<String, Set<String>> batch) {
+        List<String> payloads = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : batch.entrySet()) {
+            String header = nodeId + '\n' + entry.getKey();
+            Collection<String> keys = entry.getValue().contains(ALL) ? List.of(ALL) : entry.getValue();
+            StringBuilder payload = new StringBuilder(header);
+            int bytes = utf8Length(header);
+            for (String key : keys) {
+                int keyBytes = utf8Length(key) + 1;
+                if (bytes + keyBytes > MAX_PAYLOAD_BYTES && payload.length() > header.length()) {
+                    payloads.add(payload.toString());
+                    payload = new StringBuilder(header);
+                    bytes = utf8Length(header);
+                }
+                payload.append('\n').append(key);
+                bytes += keyBytes;
+            }
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = openListenConnection();
+                 Statement statement = connection.createStatement()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                statement.execute("LISTEN " + CHANNEL);
+                log.info("Listening for cache invalidations on {}", CHANNEL);
+                // whatever was published while we were not listening is gone
+                flushAll();
+
+                for (long polls = 1; running; polls++) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            received.increment();
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                    if (polls % heartbeatPolls == 0) {
+                        // fails on a half-open connection, which getNotifications alone never notices
+                        statement.execute("SELECT 1");
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Invalidation listener connection lost, reconnecting: {}", e.getMessage());
+                sleepQuietly(reconnectDelayMs);
+            }
+        }
+    }
+
+    /**
+     * A connection of our own rather than a pooled one: it is held for the node's lifetime, and the
+     * pool must not hand it out again or validate it while it is LISTENing
+     */
+    private Connection openListenConnection() throws SQLException {
+        Properties info = new Properties();
+        if (connectionDetails.getUsername() != null) {
+            info.setProperty("user", connectionDetails.getUsername());
+        }
+        if (connectionDetails.getPassword() != null) {
+            info.setProperty("password", connectionDetails.getPassword());
+        }
+        info.setProperty("socketTimeout", String.valueOf(LISTEN_SOCKET_TIMEOUT_S));
+        info.setProperty("tcpKeepAlive", "true");
+        info.setProperty("ApplicationName", "auth-service invalidation listener");
+        return DriverManager.getConnection(connectionDetails.getJdbcUrl(), info);
+    }
+
+    private void dispatch(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines.length < 3 || nodeId.equals(lines[0])) {
+            return;
+        }
+        Subscription subscription = subscriptions.get(lines[1]);
+        if (subscription == null) {
+            return;
+        }
+        Set<String> keys = new LinkedHashSet<>(List.of(lines).subList(2, lines.length));
+        try {
+            if (keys.contains(ALL)) {
+                subscription.onFlush().run();
+            } else {
+                subscription.onKeys().accept(keys);
+            }
+        } catch (Exception e) {
+            log.error("Invalidation handler for {} failed: {}", lines[1], e.getMessage(), e);
+        }
+    }
+
+    private void flushAll() {
+        subscriptions.forEach((topic, subscription) -> {
+            try {
+                subscription.onFlush().run();
+            } catch (Exception e) {
+                log.error("Invalidation flush for {} failed: {}", topic, e.getMessage(), e);
+            }
+        });
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static Thread daemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Subscription(Consumer<Set<String>> onKeys, Runnable onFlush) {
+    }
+}
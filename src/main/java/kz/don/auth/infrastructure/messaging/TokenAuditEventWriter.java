@@ -0,0 +1,133 @@
+package kz.don.auth.infrastructure.messaging;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import kz.don.auth.web.ClientRequests;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffered audit stream for refresh token rotation.
+ * RefreshToken is not Envers-audited; instead every issue/rotate/revoke is queued here
+ * and written to audit_logs in JDBC batches off the request thread. Events recorded inside a
+ * transaction are only queued once it commits, so a rolled-back change leaves no audit row.
+ */
+@Slf4j
+@Component
+public class TokenAuditEventWriter {
+
+    public static final String ENTITY_TYPE = "REFRESH_TOKEN";
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs " +
+            "(id, user_id, action, entity_type, entity_id, timestamp, ip_address, service_name, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<TokenAuditEvent> queue;
+    private final boolean enabled;
+    private final int batchSize;
+    private final String serviceName;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public TokenAuditEventWriter(
+            JdbcTemplate jdbcTemplate,
+            @Value("${audit.token-events.enabled:true}") boolean enabled,
+            @Value("${audit.token-events.buffer-size:10000}") int bufferSize,
+            @Value("${audit.token-events.batch-size:500}") int batchSize,
+            @Value("${spring.application.name:auth-service}") String serviceName
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.serviceName = serviceName;
+    }
+
+    /**
+     * Queue a token event, after the current transaction commits if there is one.
+     * Never blocks the caller; events are dropped (and counted) if the buffer is full.
+     */
+    public void record(String action, UUID userId, UUID tokenId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        // time and address are taken now, on the request thread
+        HttpServletRequest request = ClientRequests.current();
+        TokenAuditEvent event = new TokenAuditEvent(userId, action, tokenId != null ? tokenId.toString() : "",
+                Instant.now(), request != null ? ClientRequests.clientIp(request) : null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(TokenAuditEvent event) {
+        if (!queue.offer(event)) {
+            long total = dropped.incrementAndGet();
+            if (total % 1000 == 1) {
+                log.warn("Token audit buffer full, {} events dropped so far", total);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.token-events.flush-interval-ms:1000}")
+    public void flush() {
+        List<TokenAuditEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void writeBatch(List<TokenAuditEvent> batch) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                ps.setObject(1, UUID.randomUUID());
+                ps.setObject(2, event.userId());
+                ps.setString(3, event.action());
+                ps.setString(4, ENTITY_TYPE);
+                ps.setString(5, event.tokenId());
+                ps.setTimestamp(6, Timestamp.from(event.timestamp()));
+                ps.setString(7, event.ipAddress());
+                ps.setString(8, serviceName);
+                ps.setTimestamp(9, now);
+            });
+            log.debug("Flushed {} token audit events", batch.size());
+        } catch (Exception e) {
+            log.error("Failed to write {} token audit events: {}", batch.size(), e.getMessage(), e);
+        }
+    }
+
+    private record TokenAuditEvent(UUID userId, String action, String tokenId, Instant timestamp, String ipAddress) {
+    }
+}
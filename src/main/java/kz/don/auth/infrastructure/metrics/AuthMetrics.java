@@ -0,0 +1,106 @@
+package kz.don.auth.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Central place for hot-path meters. Tags are restricted to small fixed value sets
+ * (operation, outcome, reason, cache) so the Prometheus series count stays bounded, and each meter
+ * is registered once and then looked up by its tag values instead of going through a builder per call.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+
+    public static final String AUTH_REQUESTS = "auth.requests";
+    public static final String JWT_VERIFY = "auth.jwt.verify";
+    public static final String AUDIT_INGEST = "audit.ingest";
+    public static final String CONFLUENCE_REQUESTS = "confluence.requests";
+    public static final String AUTH_FAILURES = "auth.failures";
+    public static final String CACHE_GETS = "cache.gets";
+
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    private final MeterRegistry registry;
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Stop a sample against the named timer, tagged with operation and outcome
+     */
+    public void stop(Timer.Sample sample, String metric, String operation, String outcome) {
+        sample.stop(timer(metric, operation, outcome));
+    }
+
+    public void recordAuthFailure(String reason) {
+        counters.computeIfAbsent(new MeterKey(AUTH_FAILURES, reason, null), key -> Counter.builder(AUTH_FAILURES)
+                        .description("Rejected authentication attempts by reason")
+                        .tag("reason", reason)
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordCacheHit(String cache) {
+        cacheCounter(cache, "hit").increment();
+    }
+
+    public void recordCacheMiss(String cache) {
+        cacheCounter(cache, "miss").increment();
+    }
+
+    /**
+     * A stale entry that was confirmed current by a cheap upstream check instead of a full reload
+     */
+    public void recordCacheRevalidated(String cache) {
+        cacheCounter(cache, "revalidated").increment();
+    }
+
+    /**
+     * A lookup that joined an identical in-flight load instead of issuing its own
+     */
+    public void recordCacheCoalesced(String cache) {
+        cacheCounter(cache, "coalesced").increment();
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    private Timer timer(String metric, String operation, String outcome) {
+        return timers.computeIfAbsent(new MeterKey(metric, operation, outcome), key -> Timer.builder(metric)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry));
+    }
+
+    private Counter cacheCounter(String cache, String result) {
+        return counters.computeIfAbsent(new MeterKey(CACHE_GETS, cache, result), key -> Counter.builder(CACHE_GETS)
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry));
+    }
+
+    /**
+     * Meter name and its tag values, in the order the meter declares its tags
+     */
+    private record MeterKey(String name, String first, String second) {
+    }
+}
@@ -1,9 +1,12 @@
 package kz.don.auth.infrastructure.security.jwt;
 
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.Timer;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import kz.don.auth.domain.entity.User;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,7 +19,13 @@ import java.util.Date;
 import java.util.UUID;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
+    public static final String EPOCH_CLAIM = "epoch";
+
+    private final AuthMetrics authMetrics;
+    private final TokenEpochTable tokenEpochTable;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -42,6 +51,7 @@ public class JwtService {
         Claims claims = Jwts.claims().setSubject(user.getUsername());
         claims.put("userId", user.getId().toString());
         claims.put("role", user.getRole().name());
+        claims.put(EPOCH_CLAIM, user.getTokenEpoch());
 
         return Jwts.builder()
                 .setClaims(claims)
@@ -56,10 +66,18 @@ public class JwtService {
     }
 
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())  // Use getSigningKey() instead of raw secret
-                .parseClaimsJws(token)
-                .getBody();
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.FAILURE;
+        try {
+            Claims claims = Jwts.parser()
+                    .setSigningKey(getSigningKey())  // Use getSigningKey() instead of raw secret
+                    .parseClaimsJws(token)
+                    .getBody();
+            outcome = AuthMetrics.SUCCESS;
+            return claims;
+        } finally {
+            authMetrics.stop(sample, AuthMetrics.JWT_VERIFY, "parse", outcome);
+        }
     }
 
     public long getRefreshExpiration() {
@@ -67,13 +85,49 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String jwt, UserDetails userDetails) {
-        final String username = getUsernameFromToken(jwt);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(jwt));
+        final Claims claims = getClaimsFromToken(jwt);
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date())
+                && !isTokenRevoked(claims, userDetails);
+    }
+
+    /**
+     * Whether the token was issued under an older epoch than the user's current one. The epoch table
+     * can lag a revocation on another node by one refresh; when the caller has loaded the user
+     * anyway, its epoch is taken into account too
+     */
+    private boolean isTokenRevoked(Claims claims, UserDetails userDetails) {
+        Object userId = claims.get("userId");
+        if (userId == null) {
+            return false;
+        }
+        long current = tokenEpochTable.current(UUID.fromString(userId.toString()));
+        if (userDetails instanceof User user) {
+            current = Math.max(current, user.getTokenEpoch());
+        }
+        return getTokenEpoch(claims) < current;
+    }
+
+    /**
+     * Epoch the token was issued under, whether or not it has expired; tokens issued before epochs
+     * existed count as epoch 0
+     */
+    public long getTokenEpochIgnoreExpiration(String token) {
+        try {
+            return getTokenEpoch(Jwts.parser()
+                    .setSigningKey(getSigningKey())
+                    .parseClaimsJws(token)
+                    .getBody());
+        } catch (ExpiredJwtException e) {
+            return getTokenEpoch(e.getClaims());
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token format");
+        }
     }
 
-    private boolean isTokenExpired(String jwt) {
-        final Date expiration = getClaimsFromToken(jwt).getExpiration();
-        return expiration.before(new Date());
+    private static long getTokenEpoch(Claims claims) {
+        Object epoch = claims.get(EPOCH_CLAIM);
+        return epoch instanceof Number number ? number.longValue() : 0;
     }
 
     public String extractUsername(String jwt) {
@@ -0,0 +1,143 @@
+package kz.don.auth.infrastructure.security.jwt;
+
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import kz.don.auth.infrastructure.messaging.InvalidationBus;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps {@link TokenEpochTable} in step with users.token_epoch. The first pass, at startup, loads
+ * every user with a non-zero epoch; later passes read only users changed since the last one, by
+ * (updated_at, id). updated_at is stamped by the writer before commit, so each pass starts a little
+ * before the newest timestamp seen to pick up transactions that committed late; re-reading rows
+ * is harmless because epochs only move forward. Epochs bumped on this node are applied at once and
+ * published on the {@link InvalidationBus}, so the other nodes need not wait for their next pass.
+ */
+@Slf4j
+@Component
+public class TokenEpochRefresher {
+
+    // invalidation topic; keys are "userId:epoch"
+    public static final String TOPIC = "token.epochs";
+
+    private static final String CHANGED_EPOCHS_SQL = "SELECT id, token_epoch, updated_at FROM users " +
+            "WHERE token_epoch > 0 AND (updated_at, id) > (?, ?) ORDER BY updated_at, id LIMIT ?";
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenEpochTable epochTable;
+    private final InvalidationBus invalidationBus;
+    private final int batchSize;
+    private final long overlapMs;
+
+    private LocalDateTime watermark = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public TokenEpochRefresher(
+            JdbcTemplate jdbcTemplate,
+            TokenEpochTable epochTable,
+            InvalidationBus invalidationBus,
+            AuthMetrics authMetrics,
+            @Value("${jwt.epoch.refresh-batch-size:5000}") int batchSize,
+            @Value("${jwt.epoch.refresh-overlap-ms:10000}") long overlapMs
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.epochTable = epochTable;
+        this.invalidationBus = invalidationBus;
+        this.batchSize = batchSize;
+        this.overlapMs = overlapMs;
+
+        Gauge.builder("auth.token.epoch.users", epochTable, TokenEpochTable::size)
+                .description("Users with revoked tokens tracked by the in-memory epoch table")
+                .register(authMetrics.getRegistry());
+
+        invalidationBus.subscribe(TOPIC, this::apply, this::scheduledRefresh);
+    }
+
+    @PostConstruct
+    void load() {
+        int loaded = refresh();
+        log.info("Loaded token epochs for {} users", loaded);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.epoch.refresh-interval-ms:5000}",
+            initialDelayString = "${jwt.epoch.refresh-interval-ms:5000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Token epoch refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply an epoch bumped (and committed) on this node, and tell the other nodes
+     */
+    public void advance(UUID userId, long epoch) {
+        if (epochTable.advance(userId, epoch)) {
+            invalidationBus.publish(TOPIC, userId + ":" + epoch);
+        }
+    }
+
+    private void apply(Set<String> keys) {
+        for (String key : keys) {
+            int separator = key.indexOf(':');
+            try {
+                epochTable.advance(UUID.fromString(key.substring(0, separator)),
+                        Long.parseLong(key.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                log.warn("Ignoring malformed token epoch invalidation: {}", key);
+            }
+        }
+    }
+
+    /**
+     * Apply every epoch changed since the last pass
+     *
+     * @return number of users whose epoch moved
+     */
+    public synchronized int refresh() {
+        LocalDateTime afterUpdatedAt = watermark.minusNanos(overlapMs * 1_000_000);
+        UUID afterId = MIN_ID;
+        LocalDateTime newest = watermark;
+        int advanced = 0;
+        List<EpochRow> rows;
+        do {
+            rows = jdbcTemplate.query(CHANGED_EPOCHS_SQL,
+                    (rs, rowNum) -> new EpochRow(rs.getObject(1, UUID.class), rs.getLong(2),
+                            rs.getTimestamp(3).toLocalDateTime()),
+                    Timestamp.valueOf(afterUpdatedAt), afterId, batchSize);
+            for (EpochRow row : rows) {
+                if (epochTable.advance(row.id(), row.epoch())) {
+                    advanced++;
+                }
+                if (row.updatedAt().isAfter(newest)) {
+                    newest = row.updatedAt();
+                }
+            }
+            if (!rows.isEmpty()) {
+                EpochRow last = rows.get(rows.size() - 1);
+                afterUpdatedAt = last.updatedAt();
+                afterId = last.id();
+            }
+        } while (rows.size() == batchSize);
+        watermark = newest;
+        if (advanced > 0) {
+            log.debug("Token epoch refresh advanced {} users", advanced);
+        }
+        return advanced;
+    }
+
+    private record EpochRow(UUID id, long epoch, LocalDateTime updatedAt) {
+    }
+}
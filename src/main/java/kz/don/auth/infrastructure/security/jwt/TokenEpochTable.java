@@ -0,0 +1,163 @@
+package kz.don.auth.infrastructure.security.jwt;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Current token epoch per user, so token validation needs no database read.
+ * Open addressing (linear probing) over parallel primitive arrays keyed by the two halves of the
+ * user id: a few longs per revoked user instead of boxed map entries. Users that were never revoked
+ * have no entry and read as epoch 0, which also marks an empty slot. Epochs only move forward, so
+ * replaying an update, or applying an older one, changes nothing. Reads are optimistic; writes
+ * (revocations on this node and the periodic refresh) are rare.
+ */
+@Component
+public class TokenEpochTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private Slots slots = new Slots(INITIAL_CAPACITY);
+    private int size;
+
+    public long current(UUID userId) {
+        return current(userId.getMostSignificantBits(), userId.getLeastSignificantBits());
+    }
+
+    /**
+     * Same as {@link #current(UUID)}, for callers holding the id as two longs
+     */
+    public long current(long most, long least) {
+        long stamp = lock.tryOptimisticRead();
+        long epoch = slots.find(most, least);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                epoch = slots.find(most, least);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return epoch;
+    }
+
+    /**
+     * Raise the user's epoch to at least epoch
+     *
+     * @return whether the stored epoch changed
+     */
+    public boolean advance(UUID userId, long epoch) {
+        if (epoch <= 0) {
+            return false;
+        }
+        long most = userId.getMostSignificantBits();
+        long least = userId.getLeastSignificantBits();
+
+        long stamp = lock.writeLock();
+        try {
+            // keep the load factor at or below one half so probe runs stay short
+            if ((size + 1) * 2 > slots.capacity()) {
+                slots = slots.grow();
+            }
+            int slot = slots.slotOf(most, least);
+            long stored = slots.epochs[slot];
+            if (stored >= epoch) {
+                return false;
+            }
+            if (stored == 0) {
+                slots.most[slot] = most;
+                slots.least[slot] = least;
+                size++;
+            }
+            slots.epochs[slot] = epoch;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Number of users with a non-zero epoch
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static final class Slots {
+
+        private final long[] most;
+        private final long[] least;
+        private final long[] epochs;
+        private final int mask;
+
+        Slots(int capacity) {
+            most = new long[capacity];
+            least = new long[capacity];
+            epochs = new long[capacity];
+            mask = capacity - 1;
+        }
+
+        int capacity() {
+            return epochs.length;
+        }
+
+        /**
+         * Slot holding the key, or the empty slot where it would go
+         */
+        int slotOf(long mostBits, long leastBits) {
+            int slot = hash(mostBits, leastBits) & mask;
+            while (epochs[slot] != 0 && (most[slot] != mostBits || least[slot] != leastBits)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Stored epoch, or 0. Probing is bounded by the capacity so that an optimistic read racing
+         * a writer terminates; such a read is discarded by the caller anyway
+         */
+        long find(long mostBits, long leastBits) {
+            int slot = hash(mostBits, leastBits) & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long epoch = epochs[slot];
+                if (epoch == 0) {
+                    return 0;
+                }
+                if (most[slot] == mostBits && least[slot] == leastBits) {
+                    return epoch;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        Slots grow() {
+            Slots grown = new Slots(capacity() * 2);
+            for (int i = 0; i < epochs.length; i++) {
+                if (epochs[i] != 0) {
+                    int slot = grown.slotOf(most[i], least[i]);
+                    grown.most[slot] = most[i];
+                    grown.least[slot] = least[i];
+                    grown.epochs[slot] = epochs[i];
+                }
+            }
+            return grown;
+        }
+
+        private static int hash(long mostBits, long leastBits) {
+            // murmur3 finalizer; random UUIDs are well spread already, time-based ones are not
+            long h = mostBits * 31 + leastBits;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return (int) h;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package kz.don.auth.infrastructure.security.opaque;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Fixed-capacity open-addressing (linear probing) hash table of opaque access sessions, kept outside
+ * the Java heap in a direct buffer. Keys are 128-bit token keys (the caller passes a digest of the
+ * token id, never the id itself); a slot is 48 bytes:
+ * <pre>
+ *  0 key (2 longs) | 16 user id (2 longs) | 32 expiresAt ms | 40 epoch
+ * </pre>
+ * expiresAt 0 marks an empty slot. Removal shifts the following probe run back instead of leaving
+ * tombstones, so the table never degrades. Lookups read straight from the buffer into a caller-owned
+ * {@link Session} and allocate nothing. A small on-heap min-heap of (expiresAt, id) drives eviction
+ * in expiry order; entries for sessions removed or replaced meanwhile are skipped when popped.
+ */
+public final class OffHeapSessionStore {
+
+    public static final int MAX_CAPACITY = 1 << 24;
+
+    private static final int SLOT_BYTES = 48;
+    private static final int ID_HI = 0;
+    private static final int ID_LO = 8;
+    private static final int USER_HI = 16;
+    private static final int USER_LO = 24;
+    private static final int EXPIRES_AT = 32;
+    private static final int EPOCH = 40;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final int maxSize;
+    private final StampedLock lock = new StampedLock();
+    private int size;
+
+    // expiry min-heap, parallel arrays
+    private long[] heapExpiresAt = new long[1024];
+    private long[] heapIdHi = new long[1024];
+    private long[] heapIdLo = new long[1024];
+    private int heapSize;
+
+    /**
+     * Mutable view of one session, filled by {@link #get} and read by {@link #put}
+     */
+    public static final class Session {
+        public long userHi;
+        public long userLo;
+        public long expiresAt;
+        public long epoch;
+
+        public UUID userId() {
+            return new UUID(userHi, userLo);
+        }
+    }
+
+    private OffHeapSessionStore(ByteBuffer buffer, int capacity) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        // keep probe runs short: at most three quarters full, then the soonest-expiring session goes
+        this.maxSize = capacity - capacity / 4;
+    }
+
+    /**
+     * A store in anonymous off-heap memory; sessions are lost on restart
+     *
+     * @param capacity slots, rounded up to a power of two
+     */
+    public static OffHeapSessionStore inMemory(int capacity) {
+        int slots = slots(capacity);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(slots * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        return new OffHeapSessionStore(buffer, slots);
+    }
+
+    private static int slots(int capacity) {
+        if (capacity < 16 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 16 and " + MAX_CAPACITY);
+        }
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copy the session into into, unless it is missing or expired at now
+     */
+    public boolean get(long idHi, long idLo, long now, Session into) {
+        long stamp = lock.tryOptimisticRead();
+        boolean found = read(idHi, idLo, now, into);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = read(idHi, idLo, now, into);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Insert or replace a session. When the store is full, the sessions closest to expiry are
+     * evicted to make room
+     */
+    public void put(long idHi, long idLo, Session session) {
+        if (session.expiresAt <= 0) {
+            throw new IllegalArgumentException("expiresAt must be positive");
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(idHi, idLo);
+            if (expiresAt(slot) == 0) {
+                while (size >= maxSize && evictOne(Long.MAX_VALUE)) {
+                    // the eviction may have shifted our probe run
+                    slot = slotOf(idHi, idLo);
+                }
+                size++;
+            }
+            int base = offset(slot);
+            buffer.putLong(base + ID_HI, idHi);
+            buffer.putLong(base + ID_LO, idLo);
+            buffer.putLong(base + USER_HI, session.userHi);
+            buffer.putLong(base + USER_LO, session.userLo);
+            buffer.putLong(base + EPOCH, session.epoch);
+            // written last: a non-zero expiresAt is what makes the slot visible
+            buffer.putLong(base + EXPIRES_AT, session.expiresAt);
+            heapPush(session.expiresAt, idHi, idLo);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long idHi, long idLo) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(idHi, idLo);
+            if (expiresAt(slot) == 0) {
+                return false;
+            }
+            delete(slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Drop every session that expired at or before now
+     *
+     * @return number of sessions dropped
+     */
+    public int evictExpired(long now) {
+        long stamp = lock.writeLock();
+        try {
+            int evicted = 0;
+            while (heapSize > 0 && heapExpiresAt[0] <= now) {
+                if (evictOne(now)) {
+                    evicted++;
+                }
+            }
+            // sessions removed early leave their heap entries behind; rebuild once they dominate
+            if (heapSize > 1024 && heapSize > size * 2) {
+                rebuildHeap();
+            }
+            return evicted;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean read(long idHi, long idLo, long now, Session into) {
+        int slot = hash(idHi, idLo) & mask;
+        // bounded, so that an optimistic read racing a writer terminates; the caller discards it
+        for (int probes = 0; probes < capacity; probes++) {
+            int base = offset(slot);
+            long expiresAt = buffer.getLong(base + EXPIRES_AT);
+            if (expiresAt == 0) {
+                return false;
+            }
+            if (buffer.getLong(base + ID_HI) == idHi && buffer.getLong(base + ID_LO) == idLo) {
+                if (expiresAt <= now) {
+                    return false;
+                }
+                into.userHi = buffer.getLong(base + USER_HI);
+                into.userLo = buffer.getLong(base + USER_LO);
+                into.expiresAt = expiresAt;
+                into.epoch = buffer.getLong(base + EPOCH);
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Slot holding the id, or the empty slot where it would go. The load factor cap guarantees one
+     */
+    private int slotOf(long idHi, long idLo) {
+        int slot = hash(idHi, idLo) & mask;
+        while (expiresAt(slot) != 0 && !(idHi(slot) == idHi && idLo(slot) == idLo)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Pop the soonest-expiring heap entry and, if it still describes a stored session expiring no later
+     * than limit, remove that session
+     *
+     * @return whether a session was removed
+     */
+    private boolean evictOne(long limit) {
+        while (heapSize > 0) {
+            long expiresAt = heapExpiresAt[0];
+            if (expiresAt > limit) {
+                return false;
+            }
+            long idHi = heapIdHi[0];
+            long idLo = heapIdLo[0];
+            heapPop();
+            int slot = slotOf(idHi, idLo);
+            if (expiresAt(slot) == expiresAt) {
+                delete(slot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Backward-shift deletion: move later members of the probe run into the hole so that every
+     * remaining key stays reachable from its home slot
+     */
+    private void delete(int slot) {
+        int hole = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (expiresAt(next) == 0) {
+                break;
+            }
+            int home = hash(idHi(next), idLo(next)) & mask;
+            boolean reachable = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (reachable) {
+                continue;
+            }
+            copySlot(next, hole);
+            hole = next;
+        }
+        clearSlot(hole);
+        size--;
+    }
+
+    private void copySlot(int from, int to) {
+        int source = offset(from);
+        int target = offset(to);
+        for (int field = 0; field < SLOT_BYTES; field += 8) {
+            buffer.putLong(target + field, buffer.getLong(source + field));
+        }
+    }
+
+    private void clearSlot(int slot) {
+        int base = offset(slot);
+        for (int field = 0; field < SLOT_BYTES; field += 8) {
+            buffer.putLong(base + field, 0L);
+        }
+    }
+
+    private void rebuildHeap() {
+        heapSize = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long expiresAt = expiresAt(slot);
+            if (expiresAt != 0) {
+                heapPush(expiresAt, idHi(slot), idLo(slot));
+            }
+        }
+        int trimmed = Math.max(1024, heapSize);
+        if (heapExpiresAt.length > trimmed * 2) {
+            heapExpiresAt = Arrays.copyOf(heapExpiresAt, trimmed);
+            heapIdHi = Arrays.copyOf(heapIdHi, trimmed);
+            heapIdLo = Arrays.copyOf(heapIdLo, trimmed);
+        }
+    }
+
+    private void heapPush(long expiresAt, long idHi, long idLo) {
+        if (heapSize == heapExpiresAt.length) {
+            int grown = heapSize * 2;
+            heapExpiresAt = Arrays.copyOf(heapExpiresAt, grown);
+            heapIdHi = Arrays.copyOf(heapIdHi, grown);
+            heapIdLo = Arrays.copyOf(heapIdLo, grown);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heapExpiresAt[parent] <= expiresAt) {
+                break;
+            }
+            moveHeapEntry(parent, i);
+            i = parent;
+        }
+        heapExpiresAt[i] = expiresAt;
+        heapIdHi[i] = idHi;
+        heapIdLo[i] = idLo;
+    }
+
+    private void heapPop() {
+        heapSize--;
+        if (heapSize == 0) {
+            return;
+        }
+        long expiresAt = heapExpiresAt[heapSize];
+        long idHi = heapIdHi[heapSize];
+        long idLo = heapIdLo[heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapExpiresAt[child + 1] < heapExpiresAt[child]) {
+                child++;
+            }
+            if (heapExpiresAt[child] >= expiresAt) {
+                break;
+            }
+            moveHeapEntry(child, i);
+            i = child;
+        }
+        heapExpiresAt[i] = expiresAt;
+        heapIdHi[i] = idHi;
+        heapIdLo[i] = idLo;
+    }
+
+    private void moveHeapEntry(int from, int to) {
+        heapExpiresAt[to] = heapExpiresAt[from];
+        heapIdHi[to] = heapIdHi[from];
+        heapIdLo[to] = heapIdLo[from];
+    }
+
+    private long expiresAt(int slot) {
+        return buffer.getLong(offset(slot) + EXPIRES_AT);
+    }
+
+    private long idHi(int slot) {
+        return buffer.getLong(offset(slot) + ID_HI);
+    }
+
+    private long idLo(int slot) {
+        return buffer.getLong(offset(slot) + ID_LO);
+    }
+
+    private static int offset(int slot) {
+        return slot * SLOT_BYTES;
+    }
+
+    private static int hash(long idHi, long idLo) {
+        // murmur3 finalizer over both halves
+        long h = idHi * 31 + idLo;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
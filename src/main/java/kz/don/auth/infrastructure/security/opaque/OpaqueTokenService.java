@@ -0,0 +1,410 @@
+package kz.don.auth.infrastructure.security.opaque;
+
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kz.don.auth.infrastructure.messaging.InvalidationBus;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import kz.don.auth.infrastructure.security.jwt.TokenEpochTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Opaque reference tokens for internal clients that want short headers and instant revocation:
+ * "oat_" (access) or "ort_" (refresh) followed by 22 base64url characters of a 128-bit random id.
+ * Both sessions of a pair are written to opaque_sessions, by SHA-256 of the id, when they are issued,
+ * and that table decides: a refresh token works only while its row can be deleted, and revoking
+ * a token deletes its row and its pair's. The {@link OffHeapSessionStore} caches access sessions in
+ * front of it, keyed by the leading 128 bits of that hash, so validating an access token is normally
+ * a local lookup: any node loads a session it does not hold from Postgres and keeps it for at most
+ * cacheMs. Refresh tokens always go to Postgres. Revocations are also published on the
+ * {@link InvalidationBus}, so the other nodes usually drop their copies at once rather than after cacheMs.
+ */
+@Slf4j
+@Service
+public class OpaqueTokenService {
+
+    public static final String ACCESS_PREFIX = "oat_";
+    public static final String REFRESH_PREFIX = "ort_";
+    public static final String TOKEN_TYPE = "opaque";
+
+    // invalidation topic; keys are store keys of revoked access sessions written as UUIDs
+    public static final String TOPIC = "opaque.revoked";
+
+    private static final int ACCESS = 1;
+    private static final int REFRESH = 2;
+    private static final int PREFIX_LENGTH = 4;
+    private static final int ID_CHARS = 22;
+
+    private static final String INSERT_SQL = "INSERT INTO opaque_sessions " +
+            "(token_hash, pair_hash, kind, user_id, token_epoch, expires_at) VALUES (?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?)";
+    private static final String FIND_ACCESS_SQL = "SELECT user_id, token_epoch, expires_at FROM opaque_sessions " +
+            "WHERE token_hash = ? AND kind = ? AND expires_at > ?";
+    // the deleted row is the claim: of two concurrent refreshes with the same token only one gets it
+    private static final String DELETE_PAIR_SQL = "WITH removed AS (" +
+            "DELETE FROM opaque_sessions WHERE token_hash = ? AND kind = ? RETURNING user_id, token_epoch, expires_at, pair_hash), " +
+            "paired AS (DELETE FROM opaque_sessions WHERE token_hash IN (SELECT pair_hash FROM removed)) " +
+            "SELECT user_id, token_epoch, expires_at, pair_hash FROM removed";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM opaque_sessions WHERE expires_at < ?";
+
+    private static final ThreadLocal<TokenHasher> HASHER = ThreadLocal.withInitial(TokenHasher::new);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenEpochTable tokenEpochTable;
+    private final InvalidationBus invalidationBus;
+    private final AuthMetrics authMetrics;
+    private final boolean enabled;
+    private final int capacity;
+    private final long accessExpiration;
+    private final long refreshExpiration;
+    private final long cacheMs;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<OffHeapSessionStore.Session> scratch =
+            ThreadLocal.withInitial(OffHeapSessionStore.Session::new);
+
+    private OffHeapSessionStore store;
+
+    public OpaqueTokenService(
+            JdbcTemplate jdbcTemplate,
+            TokenEpochTable tokenEpochTable,
+            InvalidationBus invalidationBus,
+            AuthMetrics authMetrics,
+            @Value("${opaque-tokens.enabled:false}") boolean enabled,
+            @Value("${opaque-tokens.capacity:1048576}") int capacity,
+            @Value("${opaque-tokens.expiration:${jwt.expiration}}") long accessExpiration,
+            @Value("${opaque-tokens.refresh-expiration:${jwt.refresh-expiration}}") long refreshExpiration,
+            @Value("${opaque-tokens.cache-ms:5000}") long cacheMs
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenEpochTable = tokenEpochTable;
+        this.invalidationBus = invalidationBus;
+        this.authMetrics = authMetrics;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.accessExpiration = accessExpiration;
+        this.refreshExpiration = refreshExpiration;
+        this.cacheMs = cacheMs;
+    }
+
+    public record Tokens(String accessToken, String refreshToken) {
+    }
+
+    /**
+     * The owner of a consumed refresh token and the epoch it was issued under
+     */
+    public record RefreshSession(UUID userId, long epoch) {
+    }
+
+    private record Removed(UUID userId, long epoch, long expiresAt, byte[] pairHash) {
+    }
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        store = OffHeapSessionStore.inMemory(capacity);
+        log.info("Opaque token store ready: {} slots", store.capacity());
+
+        Gauge.builder("auth.opaque.sessions", store, OffHeapSessionStore::size)
+                .description("Access sessions cached in the opaque token store")
+                .register(authMetrics.getRegistry());
+
+        // cached access sessions expire within cacheMs anyway, so a missed revocation needs no flush
+        invalidationBus.subscribe(TOPIC, this::dropRevoked, () -> { });
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    public static boolean isAccessToken(String token) {
+        return token != null && token.startsWith(ACCESS_PREFIX);
+    }
+
+    /**
+     * Mint an access and refresh token pair for the user under their current token epoch
+     */
+    public Tokens issue(UUID userId, long epoch) {
+        requireEnabled();
+        long now = System.currentTimeMillis();
+        long accessHi = random.nextLong();
+        long accessLo = random.nextLong();
+        long refreshHi = random.nextLong();
+        long refreshLo = random.nextLong();
+        long accessExpiresAt = now + accessExpiration;
+        long refreshExpiresAt = now + refreshExpiration;
+
+        byte[] accessHash = hash(accessHi, accessLo);
+        byte[] refreshHash = hash(refreshHi, refreshLo);
+        jdbcTemplate.update(INSERT_SQL,
+                accessHash, refreshHash, ACCESS, userId, epoch, timestamp(accessExpiresAt),
+                refreshHash, accessHash, REFRESH, userId, epoch, timestamp(refreshExpiresAt));
+
+        OffHeapSessionStore.Session session = new OffHeapSessionStore.Session();
+        session.userHi = userId.getMostSignificantBits();
+        session.userLo = userId.getLeastSignificantBits();
+        session.epoch = epoch;
+        session.expiresAt = Math.min(accessExpiresAt, now + cacheMs);
+        store.put(keyHi(accessHash), keyLo(accessHash), session);
+
+        return new Tokens(encode(ACCESS_PREFIX, accessHi, accessLo), encode(REFRESH_PREFIX, refreshHi, refreshLo));
+    }
+
+    /**
+     * Owner of a valid access token, or null. Nothing is allocated when the session is cached and valid;
+     * a session this node does not hold is read from Postgres and cached
+     */
+    public UUID authenticate(String accessToken) {
+        if (store == null || !isAccessToken(accessToken) || !isWellFormed(accessToken)) {
+            return null;
+        }
+        byte[] tokenHash = HASHER.get().hash(decode(accessToken, true), decode(accessToken, false));
+        long keyHi = keyHi(tokenHash);
+        long keyLo = keyLo(tokenHash);
+        long now = System.currentTimeMillis();
+        OffHeapSessionStore.Session session = scratch.get();
+        boolean found = store.get(keyHi, keyLo, now, session) || loadAccess(tokenHash, keyHi, keyLo, now, session);
+        if (!found || session.epoch < tokenEpochTable.current(session.userHi, session.userLo)) {
+            return null;
+        }
+        return session.userId();
+    }
+
+    /**
+     * Use up a refresh token: its row and the paired access session are deleted, so each refresh
+     * token works once, on whichever node it is presented
+     *
+     * @throws ResponseStatusException 401 if the token is unknown, expired, revoked or already used
+     */
+    public RefreshSession consumeRefresh(String refreshToken) {
+        requireEnabled();
+        if (refreshToken == null || !refreshToken.startsWith(REFRESH_PREFIX) || !isWellFormed(refreshToken)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token format");
+        }
+        List<Removed> removed = deletePersisted(hash(decode(refreshToken, true), decode(refreshToken, false)), REFRESH);
+        for (Removed row : removed) {
+            dropRevoked(keyHi(row.pairHash()), keyLo(row.pairHash()), true);
+        }
+        long now = System.currentTimeMillis();
+        return removed.stream()
+                .filter(row -> row.expiresAt() > now)
+                .map(row -> new RefreshSession(row.userId(), row.epoch()))
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired refresh token"));
+    }
+
+    /**
+     * Revoke the session of an access or refresh token together with its pair
+     *
+     * @return false if the token was not known
+     */
+    public boolean revoke(String token) {
+        requireEnabled();
+        if (token == null || !isWellFormed(token)) {
+            return false;
+        }
+        boolean access = token.startsWith(ACCESS_PREFIX);
+        if (!access && !token.startsWith(REFRESH_PREFIX)) {
+            return false;
+        }
+        byte[] tokenHash = hash(decode(token, true), decode(token, false));
+
+        List<Removed> removed = deletePersisted(tokenHash, access ? ACCESS : REFRESH);
+        if (access) {
+            dropRevoked(keyHi(tokenHash), keyLo(tokenHash), true);
+        } else {
+            for (Removed row : removed) {
+                dropRevoked(keyHi(row.pairHash()), keyLo(row.pairHash()), true);
+            }
+        }
+        return !removed.isEmpty();
+    }
+
+    /**
+     * Drop expired sessions from the store, in expiry order, and expired rows from Postgres
+     */
+    @Scheduled(fixedDelayString = "${opaque-tokens.sweep-interval-ms:60000}")
+    public void sweep() {
+        if (store == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int evicted = store.evictExpired(now);
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, timestamp(now));
+        if (evicted > 0 || deleted > 0) {
+            log.debug("Swept {} expired opaque sessions, {} persisted sessions", evicted, deleted);
+        }
+    }
+
+    /**
+     * Fill session from the persisted access session and cache it for at most cacheMs
+     */
+    private boolean loadAccess(byte[] tokenHash, long keyHi, long keyLo, long now, OffHeapSessionStore.Session session) {
+        List<OffHeapSessionStore.Session> rows = jdbcTemplate.query(FIND_ACCESS_SQL, (rs, rowNum) -> {
+            UUID userId = rs.getObject(1, UUID.class);
+            session.userHi = userId.getMostSignificantBits();
+            session.userLo = userId.getLeastSignificantBits();
+            session.epoch = rs.getLong(2);
+            session.expiresAt = Math.min(rs.getTimestamp(3).getTime(), now + cacheMs);
+            return session;
+        }, tokenHash, ACCESS, timestamp(now));
+        if (rows.isEmpty()) {
+            return false;
+        }
+        store.put(keyHi, keyLo, session);
+        return true;
+    }
+
+    private List<Removed> deletePersisted(byte[] tokenHash, int kind) {
+        return jdbcTemplate.query(DELETE_PAIR_SQL, (rs, rowNum) -> new Removed(rs.getObject(1, UUID.class),
+                rs.getLong(2), rs.getTimestamp(3).getTime(), rs.getBytes(4)), tokenHash, kind);
+    }
+
+    /**
+     * Remove a revoked access session from the store; with publish, tell the other nodes to do the same
+     */
+    private void dropRevoked(long keyHi, long keyLo, boolean publish) {
+        store.remove(keyHi, keyLo);
+        if (publish) {
+            invalidationBus.publish(TOPIC, new UUID(keyHi, keyLo).toString());
+        }
+    }
+
+    private void dropRevoked(Set<String> keys) {
+        for (String key : keys) {
+            try {
+                UUID id = UUID.fromString(key);
+                dropRevoked(id.getMostSignificantBits(), id.getLeastSignificantBits(), false);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed opaque token invalidation: {}", key);
+            }
+        }
+    }
+
+    private void requireEnabled() {
+        if (store == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Opaque tokens are disabled");
+        }
+    }
+
+    private static String encode(String prefix, long hi, long lo) {
+        byte[] id = ByteBuffer.allocate(16).putLong(hi).putLong(lo).array();
+        return prefix + Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+    }
+
+    private static boolean isWellFormed(String token) {
+        if (token.length() != PREFIX_LENGTH + ID_CHARS) {
+            return false;
+        }
+        for (int i = PREFIX_LENGTH; i < token.length(); i++) {
+            if (base64Value(token.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One half of the 128-bit id, decoded in place from the base64url characters
+     */
+    private static long decode(String token, boolean high) {
+        long hi = 0;
+        long lo = 0;
+        int bits = 0;
+        for (int i = PREFIX_LENGTH; i < PREFIX_LENGTH + ID_CHARS; i++) {
+            int value = base64Value(token.charAt(i));
+            for (int shift = 5; shift >= 0 && bits < 128; shift--, bits++) {
+                long bit = (value >>> shift) & 1;
+                if (bits < 64) {
+                    hi = (hi << 1) | bit;
+                } else {
+                    lo = (lo << 1) | bit;
+                }
+            }
+        }
+        return high ? hi : lo;
+    }
+
+    private static int base64Value(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 26;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 52;
+        }
+        if (c == '-') {
+            return 62;
+        }
+        return c == '_' ? 63 : -1;
+    }
+
+    /**
+     * SHA-256 of the token id, as stored in opaque_sessions
+     */
+    private static byte[] hash(long hi, long lo) {
+        return HASHER.get().hash(hi, lo).clone();
+    }
+
+    private static long keyHi(byte[] tokenHash) {
+        return ByteBuffer.wrap(tokenHash).getLong(0);
+    }
+
+    private static long keyLo(byte[] tokenHash) {
+        return ByteBuffer.wrap(tokenHash).getLong(8);
+    }
+
+    private static Timestamp timestamp(long epochMilli) {
+        return Timestamp.from(Instant.ofEpochMilli(epochMilli));
+    }
+
+    /**
+     * Per-thread SHA-256 with its own input and output buffers, so hashing on the validation path
+     * allocates nothing; the returned array is overwritten by the next call on the thread
+     */
+    private static final class TokenHasher {
+
+        private final MessageDigest sha256;
+        private final ByteBuffer id = ByteBuffer.allocate(16);
+        private final byte[] digest = new byte[32];
+
+        TokenHasher() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 unavailable", e);
+            }
+        }
+
+        byte[] hash(long hi, long lo) {
+            sha256.update(id.putLong(0, hi).putLong(8, lo).array());
+            try {
+                sha256.digest(digest, 0, digest.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return digest;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package kz.don.auth.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Access to the HTTP request being served on the current thread, for code below the web layer
+ * (audit listeners and writers) that records who made a change and from where
+ */
+public final class ClientRequests {
+
+    private ClientRequests() {
+    }
+
+    /**
+     * The request bound to the current thread, or null outside request handling
+     */
+    public static HttpServletRequest current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes
+                ? servletAttributes.getRequest()
+                : null;
+    }
+
+    /**
+     * Client address: the first X-Forwarded-For hop when a proxy set one, otherwise the peer address
+     */
+    public static String clientIp(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            int comma = xForwardedFor.indexOf(',');
+            return (comma < 0 ? xForwardedFor : xForwardedFor.substring(0, comma)).trim();
+        }
+        return request.getRemoteAddr();
+    }
+}
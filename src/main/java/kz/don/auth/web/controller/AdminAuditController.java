@@ -4,7 +4,10 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import kz.don.auth.application.service.AuditLogService;
+import kz.don.auth.application.service.UserAuditService;
 import kz.don.auth.web.dto.response.AuditLogResponse;
+import kz.don.auth.web.dto.response.KeysetPageResponse;
+import kz.don.auth.web.dto.response.UserRevisionResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +31,7 @@ import java.util.UUID;
 public class AdminAuditController {
 
     private final AuditLogService auditLogService;
+    private final UserAuditService userAuditService;
 
     @Operation(summary = "Get all audit logs", description = "Retrieves paginated audit logs")
     @GetMapping
@@ -38,6 +42,12 @@ public class AdminAuditController {
         return ResponseEntity.ok(auditLogService.getAllAuditLogs(pageable));
     }
 
+    @Operation(summary = "Get audit log", description = "Retrieves a single audit log entry including its details")
+    @GetMapping("/{id}")
+    public ResponseEntity<AuditLogResponse> getAuditLog(@PathVariable UUID id) {
+        return ResponseEntity.ok(auditLogService.getAuditLog(id));
+    }
+
     @Operation(summary = "Get user audit logs", description = "Retrieves audit logs for a specific user")
     @GetMapping("/user/{userId}")
     public ResponseEntity<Page<AuditLogResponse>> getUserAuditLogs(
@@ -57,7 +67,9 @@ public class AdminAuditController {
         return ResponseEntity.ok(auditLogService.getEntityAuditLogs(entityType, entityId));
     }
 
-    @Operation(summary = "Search audit logs", description = "Search audit logs with multiple filters")
+    @Operation(summary = "Search audit logs",
+            description = "Search audit logs with multiple filters. " +
+                    "details is a JSON object matched by containment, e.g. {\"orderId\": \"42\"}")
     @GetMapping("/search")
     public ResponseEntity<Page<AuditLogResponse>> searchAuditLogs(
             @RequestParam(required = false) UUID userId,
@@ -67,11 +79,12 @@ public class AdminAuditController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTime,
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant endTime,
+            @RequestParam(required = false) String details,
             @PageableDefault(size = 20, sort = "timestamp", direction = Sort.Direction.DESC)
             Pageable pageable
     ) {
         return ResponseEntity.ok(auditLogService.searchAuditLogs(
-                userId, action, entityType, startTime, endTime, pageable));
+                userId, action, entityType, startTime, endTime, details, pageable));
     }
 
     @Operation(summary = "Get audit logs by service", description = "Retrieves audit logs from a specific service")
@@ -83,4 +96,27 @@ public class AdminAuditController {
     ) {
         return ResponseEntity.ok(auditLogService.getAuditLogsByService(serviceName, pageable));
     }
+
+    @Operation(summary = "Get user revision history",
+            description = "Keyset-paginated Envers history of a user, newest first. " +
+                    "Pass nextCursor from the previous page as cursor")
+    @GetMapping("/users/{userId}/revisions")
+    public ResponseEntity<KeysetPageResponse<UserRevisionResponse>> getUserRevisions(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(userAuditService.getUserRevisionHistory(userId, cursor, size));
+    }
+
+    @Operation(summary = "Get user revisions by operation",
+            description = "Keyset-paginated Envers revisions of all users for INSERT, UPDATE or DELETE")
+    @GetMapping("/users/revisions")
+    public ResponseEntity<KeysetPageResponse<UserRevisionResponse>> getUserRevisionsByOperation(
+            @RequestParam String operation,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(userAuditService.getRevisionsByOperationType(operation, cursor, size));
+    }
 }
\ No newline at end of file
@@ -3,10 +3,16 @@ package kz.don.auth.web.controller;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import kz.don.auth.application.service.AuthService;
-import kz.don.auth.domain.entity.User;
+import kz.don.auth.application.service.UserBulkService;
+import kz.don.auth.application.service.UserQueryService;
+import kz.don.auth.domain.enums.RoleEnum;
 import kz.don.auth.domain.repository.UserRepository;
+import kz.don.auth.web.dto.request.BulkUserStatusRequest;
 import kz.don.auth.web.dto.request.RegisterRequest;
 import kz.don.auth.web.dto.response.AuthResponse;
+import kz.don.auth.web.dto.response.BulkUserStatusResponse;
+import kz.don.auth.web.dto.response.KeysetPageResponse;
+import kz.don.auth.web.dto.response.UserImportResponse;
 import kz.don.auth.web.dto.response.UserResponse;
 import lombok.RequiredArgsConstructor;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,10 +22,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,16 +46,27 @@ public class AdminController {
 
     private final UserRepository userRepository;
     private final AuthService authService;
+    private final UserQueryService userQueryService;
+    private final UserBulkService userBulkService;
+
+    private static final String NDJSON = "application/x-ndjson";
 
     @Operation(
             summary = "Get all users",
-            description = "Retrieves a list of all registered users (Admin only)"
+            description = "Keyset-paginated list of registered users, oldest first, optionally filtered by role, " +
+                    "enabled and a createdAt range (createdTo exclusive). " +
+                    "Pass nextCursor from the previous page as cursor (Admin only)"
     )
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
-                    description = "Successfully retrieved users list",
-                    content = @Content(schema = @Schema(implementation = UserResponse.class))
+                    description = "Successfully retrieved users page",
+                    content = @Content(schema = @Schema(implementation = KeysetPageResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor",
+                    content = @Content
             ),
             @ApiResponse(
                     responseCode = "403",
@@ -51,11 +75,65 @@ public class AdminController {
             )
     })
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(users.stream()
-                .map(this::mapToUserResponse)
-                .toList());
+    public ResponseEntity<KeysetPageResponse<UserResponse>> getAllUsers(
+            @RequestParam(required = false) RoleEnum role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        UserQueryService.Filter filter = new UserQueryService.Filter(role, enabled, createdFrom, createdTo);
+        return ResponseEntity.ok(userQueryService.listUsers(filter, cursor, size));
+    }
+
+    @Operation(
+            summary = "Search users",
+            description = "Case-insensitive substring search over email and full name, best match first " +
+                    "(exact email, then prefix, then trigram similarity); q shorter than 3 characters matches " +
+                    "prefixes only. Pass nextCursor from the previous page as cursor (Admin only)"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching users",
+                    content = @Content(schema = @Schema(implementation = KeysetPageResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Missing or too long q, or invalid cursor",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Access denied - Admin role required",
+                    content = @Content
+            )
+    })
+    @GetMapping("/users/search")
+    public ResponseEntity<KeysetPageResponse<UserResponse>> searchUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(userQueryService.searchUsers(q, cursor, size));
+    }
+
+    @Operation(
+            summary = "Export users",
+            description = "Streams every matching user as newline-delimited JSON (one UserResponse per line); " +
+                    "same filters as the listing (Admin only)"
+    )
+    @GetMapping(value = "/users/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(required = false) RoleEnum role,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        UserQueryService.Filter filter = new UserQueryService.Filter(role, enabled, createdFrom, createdTo);
+        StreamingResponseBody body = outputStream -> userQueryService.exportUsers(filter, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(body);
     }
 
     @Operation(
@@ -86,6 +164,69 @@ public class AdminController {
         return ResponseEntity.ok(authService.register(request));
     }
 
+    @Operation(
+            summary = "Import users",
+            description = "Bulk registration from text/csv (header row: email, fullName, password, role) or " +
+                    "application/x-ndjson (one RegisterRequest per line). Role defaults to CLIENT; no tokens " +
+                    "are issued. Reports an outcome for every row (Admin only)"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Import finished; see per-row outcomes",
+                    content = @Content(schema = @Schema(implementation = UserImportResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "CSV header missing required columns",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "413",
+                    description = "Too many rows",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Access denied - Admin role required",
+                    content = @Content
+            )
+    })
+    @PostMapping(value = "/users/import", consumes = {"text/csv", NDJSON})
+    public ResponseEntity<UserImportResponse> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(userBulkService.importUsers(body, contentType));
+    }
+
+    @Operation(
+            summary = "Bulk update user status",
+            description = "Enable or disable the listed userIds, or every user matching role and/or a createdAt " +
+                    "range, in set-based chunks. Disabling also revokes the users' refresh tokens (Admin only)"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Statuses updated",
+                    content = @Content(schema = @Schema(implementation = BulkUserStatusResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Neither or both of userIds and a filter given",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Access denied - Admin role required",
+                    content = @Content
+            )
+    })
+    @PutMapping("/users/status")
+    public ResponseEntity<BulkUserStatusResponse> updateUsersStatus(
+            @Valid @RequestBody BulkUserStatusRequest request) {
+        return ResponseEntity.ok(userBulkService.updateStatus(request));
+    }
+
     @Operation(
             summary = "Update user status",
             description = "Enable or disable user account (Admin only)"
@@ -110,22 +251,41 @@ public class AdminController {
     public ResponseEntity<Void> updateUserStatus(
             @PathVariable UUID userId,
             @RequestParam boolean enabled) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found"));
-        user.setEnabled(enabled);
-        userRepository.save(user);
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found");
+        }
+        // the set-based path updates the row in place and, when disabling, advances the token epoch in
+        // the same statement, so neither a concurrent revocation nor a bulk status change is overwritten
+        userBulkService.updateStatus(BulkUserStatusRequest.builder()
+                .enabled(enabled)
+                .userIds(List.of(userId))
+                .build());
         return ResponseEntity.ok().build();
     }
 
-    public UserResponse mapToUserResponse(User user) {
-        return UserResponse.builder()
-                .id(user.getId())
-                .email(user.getEmail())
-                .fullName(user.getFullName())
-                .role(user.getRole().name())
-                .enabled(user.isEnabled())
-                .createdAt(user.getCreatedAt())
-                .updatedAt(user.getUpdatedAt())
-                .build();
+    @Operation(
+            summary = "Revoke all sessions",
+            description = "Invalidate every access and refresh token issued to the user so far (Admin only)"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Sessions revoked"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "User not found",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Access denied - Admin role required",
+                    content = @Content
+            )
+    })
+    @PostMapping("/users/{userId}/revoke-sessions")
+    public ResponseEntity<Void> revokeSessions(@PathVariable UUID userId) {
+        authService.revokeAllSessions(userId);
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -55,8 +55,9 @@ public class AuthController {
             @Valid @RequestBody AuthRequest request,
             HttpServletResponse response
     ) {
-        setAuthCookies(response, authService.login(request));
-        return ResponseEntity.ok(authService.login(request));
+        AuthResponse authResponse = authService.login(request);
+        setAuthCookies(response, authResponse);
+        return ResponseEntity.ok(authResponse);
     }
 
     @Operation(
@@ -112,6 +113,81 @@ public class AuthController {
         return ResponseEntity.ok().build();
     }
 
+    @Operation(
+            summary = "Opaque token login",
+            description = "Authenticates user and returns short opaque reference tokens instead of JWTs. " +
+                    "Available when opaque tokens are enabled; no cookies are set"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully authenticated",
+                    content = @Content(schema = @Schema(implementation = AuthResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Invalid credentials",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Opaque tokens are disabled",
+                    content = @Content
+            )
+    })
+    @PostMapping("/opaque/login")
+    public ResponseEntity<AuthResponse> opaqueLogin(
+            @Valid @RequestBody AuthRequest request
+    ) {
+        return ResponseEntity.ok(authService.login(request, true));
+    }
+
+    @Operation(
+            summary = "Opaque token refresh",
+            description = "Exchanges an opaque refresh token for a new token pair; the old pair stops working"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Token successfully refreshed",
+                    content = @Content(schema = @Schema(implementation = AuthResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Invalid, expired, used or revoked refresh token",
+                    content = @Content
+            )
+    })
+    @PostMapping("/opaque/refresh")
+    public ResponseEntity<AuthResponse> opaqueRefresh(
+            @Valid @RequestBody RefreshTokenRequest request
+    ) {
+        return ResponseEntity.ok(authService.refreshOpaqueToken(request));
+    }
+
+    @Operation(
+            summary = "Opaque token logout",
+            description = "Revokes the session of an opaque access or refresh token; both tokens stop working at once"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully logged out"
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unknown token",
+                    content = @Content
+            )
+    })
+    @PostMapping("/opaque/logout")
+    public ResponseEntity<Void> opaqueLogout(
+            @Valid @RequestBody RefreshTokenRequest request
+    ) {
+        authService.logoutOpaque(request);
+        return ResponseEntity.ok().build();
+    }
+
     private void setAuthCookies(HttpServletResponse response, AuthResponse authResponse) {
         // Access Token Cookie
         String accessTokenCookie = ResponseCookie.from("accessToken", authResponse.getAccessToken())
@@ -1,8 +1,11 @@
 package kz.don.auth.web.controller;
 
 import jakarta.validation.Valid;
+import kz.don.auth.application.service.ConfluenceAsyncService;
+import kz.don.auth.application.service.ConfluenceMirrorService;
 import kz.don.auth.application.service.ConfluenceService;
 import kz.don.auth.web.dto.ConfluencePageDTO;
+import kz.don.auth.web.dto.ConfluenceSpaceDTO;
 import kz.don.auth.web.dto.request.SearchRequestDTO;
 import kz.don.auth.web.dto.request.CreatePageRequestDTO;
 import kz.don.auth.web.dto.request.UpdatePageRequestDTO;
@@ -14,8 +17,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -24,6 +29,8 @@ import java.util.Map;
 public class ConfluenceController {
 
     private final ConfluenceService confluenceService;
+    private final ConfluenceMirrorService mirrorService;
+    private final ConfluenceAsyncService asyncService;
 
     /**
      * Search for pages
@@ -36,16 +43,31 @@ public class ConfluenceController {
      *   "labels": ["business-analysis", "requirements"],
      *   "limit": 25
      * }
+     *
+     * Plain keyword searches without labels are answered from the local index over the mirror
+     * (ranked by relevance); anything else goes to Confluence CQL on the non-blocking client, so no
+     * request thread waits on Confluence
      */
     @PostMapping("/search")
-    public ResponseEntity<ConfluenceSearchResponseDTO> searchPages(@RequestBody SearchRequestDTO searchRequest) {
+    public CompletableFuture<ResponseEntity<ConfluenceSearchResponseDTO>> searchPages(
+            @RequestBody SearchRequestDTO searchRequest) {
         try {
             log.info("Searching pages with request: {}", searchRequest);
-            ConfluenceSearchResponseDTO response = confluenceService.searchPages(searchRequest);
-            return ResponseEntity.ok(response);
+            Optional<ConfluenceSearchResponseDTO> local = mirrorService.search(searchRequest);
+            if (local.isPresent()) {
+                return CompletableFuture.completedFuture(ResponseEntity.ok()
+                        .header(ConfluenceMirrorService.SYNCED_AT_HEADER, mirrorService.getLastSyncedAt(searchRequest.getSpaceKey()).toString())
+                        .body(local.get()));
+            }
+            return asyncService.searchPages(searchRequest)
+                    .thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> {
+                        log.error("Error searching pages", e);
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                    });
         } catch (Exception e) {
             log.error("Error searching pages", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
     }
 
@@ -68,6 +90,9 @@ public class ConfluenceController {
     /**
      * Get pages by space
      * GET /api/confluence/spaces/{spaceKey}/pages?limit=50
+     *
+     * Served from the local mirror when the space is mirrored, with X-Mirror-Synced-At set to the
+     * time the mirror was last brought up to date
      */
     @GetMapping("/spaces/{spaceKey}/pages")
     public ResponseEntity<List<ConfluencePageDTO>> getPagesBySpace(
@@ -75,6 +100,12 @@ public class ConfluenceController {
             @RequestParam(required = false, defaultValue = "50") Integer limit) {
         try {
             log.info("Getting pages from space: {}", spaceKey);
+            if (mirrorService.covers(spaceKey)) {
+                Instant syncedAt = mirrorService.getLastSyncedAt(spaceKey);
+                return ResponseEntity.ok()
+                        .header(ConfluenceMirrorService.SYNCED_AT_HEADER, syncedAt.toString())
+                        .body(mirrorService.getPagesBySpace(spaceKey, limit));
+            }
             List<ConfluencePageDTO> pages = confluenceService.getPagesBySpace(spaceKey, limit);
             return ResponseEntity.ok(pages);
         } catch (Exception e) {
@@ -160,11 +191,11 @@ public class ConfluenceController {
      * GET /api/confluence/spaces?limit=100
      */
     @GetMapping("/spaces")
-    public ResponseEntity<List<Map<String, Object>>> getAllSpaces(
+    public ResponseEntity<List<ConfluenceSpaceDTO>> getAllSpaces(
             @RequestParam(required = false, defaultValue = "100") Integer limit) {
         try {
             log.info("Getting all spaces");
-            List<Map<String, Object>> spaces = confluenceService.getAllSpaces(limit);
+            List<ConfluenceSpaceDTO> spaces = confluenceService.getAllSpaces(limit);
             return ResponseEntity.ok(spaces);
         } catch (Exception e) {
             log.error("Error getting spaces", e);
@@ -177,10 +208,10 @@ public class ConfluenceController {
      * GET /api/confluence/spaces/{spaceKey}
      */
     @GetMapping("/spaces/{spaceKey}")
-    public ResponseEntity<Map<String, Object>> getSpace(@PathVariable String spaceKey) {
+    public ResponseEntity<ConfluenceSpaceDTO> getSpace(@PathVariable String spaceKey) {
         try {
             log.info("Getting space: {}", spaceKey);
-            Map<String, Object> space = confluenceService.getSpaceByKey(spaceKey);
+            ConfluenceSpaceDTO space = confluenceService.getSpaceByKey(spaceKey);
             return ResponseEntity.ok(space);
         } catch (Exception e) {
             log.error("Error getting space", e);
@@ -1,19 +1,37 @@
 package kz.don.auth.web.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import kz.don.auth.application.service.ConfluenceMirrorService;
 import kz.don.auth.application.service.ConfluenceService;
+import kz.don.auth.application.service.UploadJobService;
 import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.web.dto.ConfluenceSpaceDTO;
 import kz.don.auth.web.dto.request.UploadFilesRequestDTO;
+import kz.don.auth.web.dto.response.BulkUploadResponseDTO;
+import kz.don.auth.web.dto.response.GetAllFilesResponseDTO;
+import kz.don.auth.web.dto.response.UploadJobResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -25,11 +43,17 @@ public class DjangoIntegrationController {
 
     private final ConfluenceService confluenceService;
     private final ConfluenceProperties properties;
+    private final UploadJobService uploadJobService;
+    private final ObjectMapper objectMapper;
+    private final ConfluenceMirrorService mirrorService;
 
     /**
      * Upload files from Django to Confluence
      * POST /api/django/upload
-     * 
+     *
+     * The upload runs as a background job; the response (202) carries the job id to poll at
+     * GET /api/django/upload/{jobId}
+     *
      * Request Body:
      * {
      *   "folderName": "My Folder",
@@ -48,9 +72,9 @@ public class DjangoIntegrationController {
     @PostMapping("/upload")
     public ResponseEntity<Map<String, Object>> uploadFiles(@Valid @RequestBody UploadFilesRequestDTO request) {
         try {
-            log.info("Received upload request for folder: {} with {} documents", 
+            log.info("Received upload request for folder: {} with {} documents",
                     request.getFolderName(), request.getDocuments().size());
-            
+
             // Convert DTO to service format
             List<Map<String, String>> documents = request.getDocuments().stream()
                     .map(doc -> {
@@ -60,26 +84,26 @@ public class DjangoIntegrationController {
                         return map;
                     })
                     .collect(Collectors.toList());
-            
-            // Upload to Confluence
-            var uploadedPages = confluenceService.uploadFilesToFolder(request.getFolderName(), documents);
-            
-            // Build response
+
+            UploadJobResponse job = uploadJobService.submit(request.getFolderName(), documents);
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("folderName", request.getFolderName());
-            response.put("folderId", uploadedPages.get(0).getId());
-            response.put("folderUrl", uploadedPages.get(0).getLinks().getWebui());
-            response.put("documentsUploaded", uploadedPages.size() - 1); // -1 for folder itself
-            response.put("message", "Successfully uploaded " + (uploadedPages.size() - 1) + " documents to folder '" + request.getFolderName() + "'");
-            
-            log.info("Upload successful: {} documents uploaded to folder '{}'", 
-                    uploadedPages.size() - 1, request.getFolderName());
-            
-            return ResponseEntity.ok(response);
-            
+            response.put("jobId", job.getJobId());
+            response.put("status", job.getStatus());
+            response.put("statusUrl", "/api/django/upload/" + job.getJobId());
+            response.put("totalDocuments", job.getTotalDocuments());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (RejectedExecutionException e) {
+            log.warn("Upload job queue is full, rejecting upload for folder '{}'", request.getFolderName());
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", "Too many uploads in progress, retry later");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
         } catch (Exception e) {
-            log.error("Error uploading files", e);
+            log.error("Error submitting upload", e);
             Map<String, Object> error = new HashMap<>();
             error.put("success", false);
             error.put("error", e.getMessage());
@@ -88,27 +112,42 @@ public class DjangoIntegrationController {
     }
 
     /**
-     * Get all files from Confluence
-     * GET /api/django/files
+     * Upload large documents from Django to Confluence without buffering them
+     * POST /api/django/upload/stream (multipart/form-data)
+     *
+     * Parts: folderName (text) and one "files" part per document; the title is the file name without
+     * its extension. Each file is streamed into its Confluence request in turn and the call returns
+     * once all documents are processed, with the same body as a finished upload job.
+     * Parts larger than spring.servlet.multipart.file-size-threshold are spooled to disk by the container.
      */
-    @GetMapping("/files")
-    public ResponseEntity<Map<String, Object>> getAllFiles() {
+    @PostMapping(value = "/upload/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadFilesStreaming(
+            @RequestParam String folderName,
+            @RequestParam("files") List<MultipartFile> files) {
         try {
-            log.info("Fetching all files from Confluence");
-            
-            List<Map<String, Object>> files = confluenceService.getAllFiles();
-            
+            log.info("Received streaming upload for folder: {} with {} documents", folderName, files.size());
+
+            List<ConfluenceService.StreamedDocument> documents = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                MultipartFile file = files.get(i);
+                documents.add(new ConfluenceService.StreamedDocument(documentTitle(file, i), file::getInputStream));
+            }
+
+            BulkUploadResponseDTO result = confluenceService.uploadStreamsToFolder(folderName, documents);
+
             Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("totalCount", files.size());
-            response.put("files", files);
-            
-            log.info("Retrieved {} files", files.size());
-            
+            response.put("success", result.getDocuments().stream()
+                    .allMatch(BulkUploadResponseDTO.UploadedDocument::isSuccess));
+            response.put("folderName", result.getFolderName());
+            response.put("folderPageId", result.getFolderPageId());
+            response.put("folderUrl", result.getFolderUrl());
+            response.put("documents", result.getDocuments());
+            response.put("totalDocuments", result.getDocuments().size());
+
             return ResponseEntity.ok(response);
-            
+
         } catch (Exception e) {
-            log.error("Error fetching files", e);
+            log.error("Error uploading streamed documents", e);
             Map<String, Object> error = new HashMap<>();
             error.put("success", false);
             error.put("error", e.getMessage());
@@ -116,6 +155,84 @@ public class DjangoIntegrationController {
         }
     }
 
+    private String documentTitle(MultipartFile file, int index) {
+        String name = file.getOriginalFilename();
+        if (name == null || name.isBlank()) {
+            return "Document " + (index + 1);
+        }
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    /**
+     * Status and per-document results of an upload job
+     * GET /api/django/upload/{jobId}
+     */
+    @GetMapping("/upload/{jobId}")
+    public ResponseEntity<UploadJobResponse> getUploadJob(@PathVariable UUID jobId) {
+        return uploadJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get all files from Confluence
+     * GET /api/django/files
+     *
+     * Files are streamed to the client as Confluence pages arrive, so memory stays flat for
+     * spaces of any size. success and totalCount are written after the files array.
+     * When the default space is mirrored, files come from the local mirror instead; the response then
+     * carries the X-Mirror-Synced-At header and a mirrorSyncedAt field.
+     */
+    @GetMapping("/files")
+    public ResponseEntity<StreamingResponseBody> getAllFiles() {
+        String spaceKey = properties.getDefaultSpaceKey();
+        Instant mirrorSyncedAt = mirrorService.getLastSyncedAt(spaceKey);
+        log.info("Fetching all files from {}", mirrorSyncedAt != null ? "mirror" : "Confluence");
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("files");
+                try {
+                    Consumer<GetAllFilesResponseDTO.FileDTO> writer = file -> {
+                        try {
+                            generator.writeObject(file);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    };
+                    int totalCount = mirrorSyncedAt != null
+                            ? mirrorService.forEachFile(spaceKey, writer)
+                            : confluenceService.forEachFile(writer);
+                    generator.writeEndArray();
+                    generator.writeBooleanField("success", true);
+                    generator.writeNumberField("totalCount", totalCount);
+                    if (mirrorSyncedAt != null) {
+                        generator.writeStringField("mirrorSyncedAt", mirrorSyncedAt.toString());
+                    }
+
+                    log.info("Retrieved {} files", totalCount);
+                } catch (UncheckedIOException e) {
+                    // client went away mid-stream, nothing more can be written
+                    throw e.getCause();
+                } catch (Exception e) {
+                    log.error("Error fetching files", e);
+                    generator.writeEndArray();
+                    generator.writeBooleanField("success", false);
+                    generator.writeStringField("error", e.getMessage());
+                }
+                generator.writeEndObject();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (mirrorSyncedAt != null) {
+            response.header(ConfluenceMirrorService.SYNCED_AT_HEADER, mirrorSyncedAt.toString());
+        }
+        return response.body(body);
+    }
+
     /**
      * Get all Confluence spaces
      * GET /api/django/spaces
@@ -125,21 +242,19 @@ public class DjangoIntegrationController {
         try {
             log.info("Fetching all Confluence spaces");
 
-            List<Map<String, Object>> spaces = confluenceService.getAllSpaces(100);
+            List<ConfluenceSpaceDTO> spaces = confluenceService.getAllSpaces(100);
 
             // Transform to simpler format with just what Django needs
             List<Map<String, String>> simplifiedSpaces = spaces.stream()
                     .map(space -> {
                         Map<String, String> simple = new HashMap<>();
-                        simple.put("key", (String) space.get("key"));
-                        simple.put("name", (String) space.get("name"));
-                        simple.put("type", (String) space.get("type"));
+                        simple.put("key", space.key());
+                        simple.put("name", space.name());
+                        simple.put("type", space.type());
 
                         // Get web UI link
-                        Map<String, Object> links = (Map<String, Object>) space.get("_links");
-                        if (links != null) {
-                            String webui = (String) links.get("webui");
-                            simple.put("url", properties.getBaseUrl() + webui);
+                        if (space.links() != null) {
+                            simple.put("url", properties.getBaseUrl() + space.links().webui());
                         }
 
                         return simple;
@@ -6,15 +6,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
+import io.micrometer.core.instrument.Timer;
 import kz.don.auth.domain.entity.User;
 import kz.don.auth.domain.repository.UserRepository;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
 import kz.don.auth.infrastructure.security.jwt.JwtService;
+import kz.don.auth.infrastructure.security.opaque.OpaqueTokenService;
 import kz.don.auth.web.dto.response.UserValidationResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -24,10 +29,12 @@ public class TokenValidationController {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final OpaqueTokenService opaqueTokenService;
+    private final AuthMetrics authMetrics;
 
     @Operation(
             summary = "Validate JWT Token",
-            description = "Validates JWT token and returns user information for microservice authentication"
+            description = "Validates a JWT or opaque access token and returns user information for microservice authentication"
     )
     @ApiResponses({
             @ApiResponse(
@@ -45,32 +52,52 @@ public class TokenValidationController {
     public ResponseEntity<UserValidationResponse> validateToken(
             @RequestHeader("Authorization") String authHeader
     ) {
+        Timer.Sample sample = authMetrics.start();
+        String outcome = AuthMetrics.FAILURE;
         try {
             log.debug("Validating token from Authorization header");
 
             // Remove "Bearer " prefix
             if (!authHeader.startsWith("Bearer ")) {
                 log.warn("Invalid Authorization header format");
+                authMetrics.recordAuthFailure("malformed_header");
                 return ResponseEntity.status(401).build();
             }
 
             String token = authHeader.substring(7);
 
-            // Extract username from token
-            String username = jwtService.extractUsername(token);
-            log.debug("Extracted username from token: {}", username);
+            User user;
+            if (OpaqueTokenService.isAccessToken(token)) {
+                // Opaque token: the session store knows the user
+                UUID userId = opaqueTokenService.authenticate(token);
+                if (userId == null) {
+                    log.warn("Opaque token validation failed");
+                    authMetrics.recordAuthFailure("invalid_token");
+                    return ResponseEntity.status(401).build();
+                }
+                user = userRepository.findById(userId)
+                        .orElseThrow(() -> {
+                            log.warn("User not found: {}", userId);
+                            return new RuntimeException("User not found");
+                        });
+            } else {
+                // Extract username from token
+                String username = jwtService.extractUsername(token);
+                log.debug("Extracted username from token: {}", username);
 
-            // Find user
-            User user = userRepository.findByEmail(username)
-                    .orElseThrow(() -> {
-                        log.warn("User not found: {}", username);
-                        return new RuntimeException("User not found");
-                    });
+                // Find user
+                user = userRepository.findByEmail(username)
+                        .orElseThrow(() -> {
+                            log.warn("User not found: {}", username);
+                            return new RuntimeException("User not found");
+                        });
 
-            // Validate token
-            if (!jwtService.isTokenValid(token, user)) {
-                log.warn("Token validation failed for user: {}", username);
-                return ResponseEntity.status(401).build();
+                // Validate token
+                if (!jwtService.isTokenValid(token, user)) {
+                    log.warn("Token validation failed for user: {}", username);
+                    authMetrics.recordAuthFailure("invalid_token");
+                    return ResponseEntity.status(401).build();
+                }
             }
 
             // Return user info
@@ -82,12 +109,16 @@ public class TokenValidationController {
                     .enabled(user.isEnabled())
                     .build();
 
-            log.info("Token validated successfully for user: {}", username);
+            log.info("Token validated successfully for user: {}", user.getUsername());
+            outcome = AuthMetrics.SUCCESS;
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
             log.error("Error validating token: {}", e.getMessage());
+            authMetrics.recordAuthFailure("invalid_token");
             return ResponseEntity.status(401).build();
+        } finally {
+            authMetrics.stop(sample, AuthMetrics.AUTH_REQUESTS, "validate_token", outcome);
         }
     }
 }
\ No newline at end of file
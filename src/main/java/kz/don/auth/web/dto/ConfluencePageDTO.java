@@ -33,6 +33,19 @@ public class ConfluencePageDTO {
     @JsonProperty("_links")
     private LinksDTO links;
 
+    /**
+     * Deep copy, for handing out a cached page without sharing its nested objects; strings are shared
+     */
+    public ConfluencePageDTO copy() {
+        return new ConfluencePageDTO(id, type, status, title,
+                space != null ? new SpaceDTO(space.getKey(), space.getName()) : null,
+                body != null ? new BodyDTO(body.getStorage() != null
+                        ? new BodyDTO.StorageDTO(body.getStorage().getValue(), body.getStorage().getRepresentation())
+                        : null) : null,
+                version != null ? new VersionDTO(version.getNumber(), version.getMessage(), version.getWhen()) : null,
+                links != null ? new LinksDTO(links.getWebui(), links.getBase()) : null);
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -66,6 +79,7 @@ public class ConfluencePageDTO {
     public static class VersionDTO {
         private Integer number;
         private String message;
+        private String when; // ISO-8601 last modification time
     }
 
     @Data
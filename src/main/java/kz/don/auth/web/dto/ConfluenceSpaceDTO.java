@@ -0,0 +1,41 @@
+package kz.don.auth.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ConfluenceSpaceDTO(
+        Long id,
+        String key,
+        String name,
+        String type,
+        String status,
+        Description description,
+        Homepage homepage,
+        @JsonProperty("_links") Links links) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Description(Plain plain) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Plain(String value, String representation) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Homepage(String id, String title) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Links(String webui, String base) {
+    }
+
+    /**
+     * Envelope of GET /rest/api/space
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Page(List<ConfluenceSpaceDTO> results, Integer start, Integer limit, Integer size) {
+    }
+}
@@ -30,4 +30,6 @@ public class AuditLogRequest {
     private String ipAddress;
 
     private String serviceName; // Name of the service that generated the log
+
+    private Map<String, Object> details; // Arbitrary JSON payload, stored as jsonb
 }
\ No newline at end of file
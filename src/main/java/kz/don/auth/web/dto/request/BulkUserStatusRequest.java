@@ -0,0 +1,31 @@
+package kz.don.auth.web.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import kz.don.auth.domain.enums.RoleEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Target users are either listed in userIds, or selected by the filter fields
+ * (role and/or a createdAt range, createdTo exclusive)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserStatusRequest {
+    @NotNull(message = "enabled is required")
+    private Boolean enabled;
+
+    private List<UUID> userIds;
+
+    private RoleEnum role;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+}
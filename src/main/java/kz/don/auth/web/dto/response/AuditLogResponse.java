@@ -1,5 +1,6 @@
 package kz.don.auth.web.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,8 +21,9 @@ public class AuditLogResponse {
     private String entityType;
     private String entityId;
     private Instant timestamp;
-    private Object details; // Can be Map or any JSON structure
+    @JsonRawValue
+    private String details; // jsonb document, written as-is; only set for single-entry lookups
     private String ipAddress;
-    private String userAgent;
+    private String userAgent; // only set for single-entry lookups
     private String serviceName;
 }
\ No newline at end of file
@@ -16,6 +16,9 @@ public class AuthResponse {
 
     private String refreshToken;
 
+    // "opaque" for reference tokens; absent for JWTs
+    private String tokenType;
+
     private UUID userId;
 
     private String username;
@@ -26,5 +26,7 @@ public class BulkUploadResponseDTO {
         private String title;
         private String pageId;
         private String url;
+        private boolean success;
+        private String error; // set when this document failed to upload
     }
 }
\ No newline at end of file
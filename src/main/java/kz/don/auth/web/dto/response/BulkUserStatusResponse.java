@@ -0,0 +1,16 @@
+package kz.don.auth.web.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserStatusResponse {
+    private boolean enabled;
+    private int updatedUsers; // users whose status actually changed
+    private int revokedTokens;
+}
@@ -30,6 +30,16 @@ public class ConfluenceSearchResponseDTO {
     @JsonProperty("_links")
     private LinksDTO links;
 
+    /**
+     * Deep copy, for handing out a cached response without sharing its results; strings are shared
+     */
+    public ConfluenceSearchResponseDTO copy() {
+        return new ConfluenceSearchResponseDTO(
+                results != null ? results.stream().map(ConfluencePageDTO::copy).toList() : null,
+                start, limit, size,
+                links != null ? new LinksDTO(links.getNext(), links.getBase()) : null);
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
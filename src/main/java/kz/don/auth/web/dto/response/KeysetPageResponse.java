@@ -0,0 +1,18 @@
+package kz.don.auth.web.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageResponse<T> {
+    private List<T> items;
+    private String nextCursor; // pass back as "cursor" to fetch the next page; null on the last page
+    private boolean hasMore;
+}
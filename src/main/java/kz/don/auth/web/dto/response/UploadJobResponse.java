@@ -0,0 +1,32 @@
+package kz.don.auth.web.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import kz.don.auth.domain.enums.UploadJobStatusEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UploadJobResponse {
+    private UUID jobId;
+    private UploadJobStatusEnum status;
+    private String folderName;
+    private int totalDocuments;
+    private int completedDocuments;
+    private int failedDocuments;
+    private Instant submittedAt;
+    private Instant finishedAt;
+    private String folderId;
+    private String folderUrl;
+    private List<BulkUploadResponseDTO.UploadedDocument> documents; // set once the job has finished
+    private String error;
+}
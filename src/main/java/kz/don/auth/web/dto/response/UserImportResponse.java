@@ -0,0 +1,37 @@
+package kz.don.auth.web.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import kz.don.auth.domain.enums.UserImportStatusEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResponse {
+    private int totalRows;
+    private int created;
+    private int skipped; // EXISTS or DUPLICATE
+    private int invalid;
+    private int failed;
+    private List<RowResult> rows;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RowResult {
+        private int line; // 1-based line in the uploaded file
+        private String email;
+        private UserImportStatusEnum status;
+        private UUID userId; // set when CREATED
+        private String error; // set when INVALID or FAILED
+    }
+}
@@ -0,0 +1,31 @@
+package kz.don.auth.web.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRevisionResponse {
+    private Integer revision;
+    private String revisionType; // INSERT, UPDATE, DELETE
+    private Instant revisionTimestamp;
+    private String changedBy;
+    private String ipAddress;
+    private String httpMethod;
+
+    // User state as of this revision
+    private UUID userId;
+    private String email;
+    private String fullName;
+    private String role;
+    private boolean enabled;
+    private LocalDateTime updatedAt;
+}
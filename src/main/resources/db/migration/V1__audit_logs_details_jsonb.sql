@@ -0,0 +1,6 @@
+-- audit_logs.details: TEXT -> jsonb, with a GIN index for containment (@>) filters
+ALTER TABLE audit_logs
+    ALTER COLUMN details TYPE jsonb USING details::jsonb;
+
+CREATE INDEX IF NOT EXISTS idx_audit_logs_details
+    ON audit_logs USING GIN (details jsonb_path_ops);
@@ -0,0 +1,6 @@
+-- Keyset paging over Envers history: per-user (id, rev) and per-operation (revtype, rev)
+CREATE INDEX IF NOT EXISTS idx_users_aud_id_rev
+    ON users_aud (id, rev DESC);
+
+CREATE INDEX IF NOT EXISTS idx_users_aud_revtype_rev
+    ON users_aud (revtype, rev DESC);
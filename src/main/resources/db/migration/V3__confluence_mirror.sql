@@ -0,0 +1,25 @@
+-- Local mirror of Confluence pages, upserted by the lastmodified-watermark sync
+CREATE TABLE IF NOT EXISTS confluence_pages (
+    id            varchar(64)   PRIMARY KEY,
+    space_key     varchar(255)  NOT NULL,
+    title         varchar(500)  NOT NULL,
+    version       integer       NOT NULL,
+    content       text,
+    webui         varchar(1000),
+    last_modified timestamptz   NOT NULL,
+    synced_at     timestamptz   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_confluence_pages_space_title
+    ON confluence_pages (space_key, title);
+
+CREATE INDEX IF NOT EXISTS idx_confluence_pages_last_modified
+    ON confluence_pages (last_modified);
+
+CREATE TABLE IF NOT EXISTS confluence_sync_state (
+    scope           varchar(100) PRIMARY KEY,
+    watermark       timestamptz,
+    last_success_at timestamptz,
+    last_attempt_at timestamptz,
+    pages_synced    bigint       NOT NULL DEFAULT 0
+);
@@ -0,0 +1,3 @@
+-- Keyset paging over users for the admin listing and export: ORDER BY created_at, id
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id
+    ON users (created_at, id);
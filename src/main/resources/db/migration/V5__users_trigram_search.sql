@@ -0,0 +1,16 @@
+-- Substring search over users for GET /api/admin/users/search.
+-- Trigram GIN indexes serve LIKE '%q%' for q of 3+ characters; the text_pattern_ops btrees
+-- serve the prefix match used for shorter q, where trigrams cannot be extracted
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm
+    ON users USING gin (lower(email) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm
+    ON users USING gin (lower(full_name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_email_prefix
+    ON users (lower(email) text_pattern_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_full_name_prefix
+    ON users (lower(full_name) text_pattern_ops);
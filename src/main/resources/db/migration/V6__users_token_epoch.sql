@@ -0,0 +1,11 @@
+-- Per-user token epoch: access and refresh tokens carry the epoch they were issued under and are
+-- rejected once it is behind the user's current one, so revoking every session is one increment.
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS token_epoch bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE users_aud
+    ADD COLUMN IF NOT EXISTS token_epoch bigint;
+
+-- Incremental refresh of the in-memory epoch table: users that were ever revoked, by (updated_at, id)
+CREATE INDEX IF NOT EXISTS idx_users_token_epoch_updated_at
+    ON users (updated_at, id) WHERE token_epoch > 0;
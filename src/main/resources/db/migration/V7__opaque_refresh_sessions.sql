@@ -0,0 +1,15 @@
+-- Refresh sessions of opaque (reference) tokens, persisted write-behind from the off-heap session store
+-- so they survive a restart. Only a SHA-256 of the token id is kept; access sessions are never persisted
+CREATE TABLE IF NOT EXISTS opaque_refresh_sessions (
+    token_hash  bytea       PRIMARY KEY,
+    user_id     uuid        NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    token_epoch bigint      NOT NULL,
+    expires_at  timestamptz NOT NULL,
+    created_at  timestamptz NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_opaque_refresh_sessions_user_id
+    ON opaque_refresh_sessions (user_id);
+
+CREATE INDEX IF NOT EXISTS idx_opaque_refresh_sessions_expires_at
+    ON opaque_refresh_sessions (expires_at);
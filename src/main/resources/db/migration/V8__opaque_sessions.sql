@@ -0,0 +1,10 @@
+-- Opaque access sessions are persisted next to refresh sessions, so any replica can validate a token
+-- minted by another; the off-heap store on each node becomes a short-lived cache in front of this table.
+-- pair_hash links the two sessions of a pair, so revoking either token deletes both rows
+ALTER TABLE IF EXISTS opaque_refresh_sessions RENAME TO opaque_sessions;
+
+ALTER TABLE opaque_sessions ADD COLUMN IF NOT EXISTS kind smallint NOT NULL DEFAULT 2;
+ALTER TABLE opaque_sessions ADD COLUMN IF NOT EXISTS pair_hash bytea;
+
+ALTER INDEX IF EXISTS idx_opaque_refresh_sessions_user_id RENAME TO idx_opaque_sessions_user_id;
+ALTER INDEX IF EXISTS idx_opaque_refresh_sessions_expires_at RENAME TO idx_opaque_sessions_expires_at;
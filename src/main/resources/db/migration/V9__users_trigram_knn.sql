@@ -0,0 +1,14 @@
+-- Nearest-neighbour trigram ordering (lower(col) <-> q) for GET /api/admin/users/search, which ranks a
+-- bounded candidate set per column; only GiST trigram indexes can return rows in distance order
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm_gist
+    ON users USING gist (lower(email) gist_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm_gist
+    ON users USING gist (lower(full_name) gist_trgm_ops);
+
+-- GiST trigram indexes also serve the LIKE filters, substring and prefix, so the V5 GIN and
+-- text_pattern_ops indexes are no longer chosen by the search and only slow down writes
+DROP INDEX IF EXISTS idx_users_email_trgm;
+DROP INDEX IF EXISTS idx_users_full_name_trgm;
+DROP INDEX IF EXISTS idx_users_email_prefix;
+DROP INDEX IF EXISTS idx_users_full_name_prefix;
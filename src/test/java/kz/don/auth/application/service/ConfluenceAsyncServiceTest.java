@@ -0,0 +1,179 @@
+package kz.don.auth.application.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.config.HttpClientConfig;
+import kz.don.auth.infrastructure.confluence.ConfluenceContentCache;
+import kz.don.auth.infrastructure.confluence.ConfluenceJson;
+import kz.don.auth.infrastructure.confluence.ConfluenceMirrorWriter;
+import kz.don.auth.infrastructure.confluence.ConfluenceRequestTemplates;
+import kz.don.auth.infrastructure.confluence.ConfluenceResilience;
+import kz.don.auth.infrastructure.messaging.InvalidationBus;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import kz.don.auth.web.dto.ConfluencePageDTO;
+import kz.don.auth.web.dto.request.CreatePageRequestDTO;
+import kz.don.auth.web.dto.response.BulkUploadResponseDTO;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ConfluenceAsyncServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpServer server;
+    private CloseableHttpAsyncClient client;
+    private ConfluenceAsyncService service;
+    private volatile String lastAuthorization;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/rest/api/content", this::handleContent);
+        server.start();
+
+        ConfluenceProperties properties = new ConfluenceProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.setUsername("bot");
+        properties.setApiToken("secret");
+        properties.setDefaultSpaceKey("DOCS");
+        properties.setBulkUploadConcurrency(3);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+        client = new HttpClientConfig().httpAsyncClient(properties, meterRegistry);
+        service = new ConfluenceAsyncService(client, properties, new ConfluenceJson(objectMapper), authMetrics,
+                new ConfluenceContentCache(properties, authMetrics, mock(InvalidationBus.class)), new ConfluenceResilience(properties, meterRegistry),
+                new ConfluenceRequestTemplates(properties), mock(ConfluenceMirrorWriter.class));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void getPageByIdParsesPageAndSendsBasicAuth() throws Exception {
+        ConfluencePageDTO page = service.getPageById("42").get(5, TimeUnit.SECONDS);
+
+        assertEquals("42", page.getId());
+        assertEquals("Page 42", page.getTitle());
+        assertEquals(3, page.getVersion().getNumber());
+        assertEquals("Basic Ym90OnNlY3JldA==", lastAuthorization);
+    }
+
+    @Test
+    void errorStatusCompletesExceptionally() {
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> service.getPageById("missing").get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(IOException.class, error.getCause());
+        assertEquals("Failed to get page: 404", error.getCause().getMessage());
+    }
+
+    @Test
+    void createPagesKeepsOrderAndReportsFailuresInPlace() throws Exception {
+        List<CreatePageRequestDTO> requests = IntStream.range(0, 50)
+                .mapToObj(i -> CreatePageRequestDTO.builder()
+                        .title(i == 7 ? "reject" : "Doc " + i)
+                        .content("<p>" + i + "</p>")
+                        .parentPageId("1")
+                        .build())
+                .toList();
+
+        List<BulkUploadResponseDTO.UploadedDocument> results = service.createPages(requests).get(10, TimeUnit.SECONDS);
+
+        assertEquals(50, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            BulkUploadResponseDTO.UploadedDocument doc = results.get(i);
+            if (i == 7) {
+                assertFalse(doc.isSuccess());
+                assertEquals("reject", doc.getTitle());
+                assertNotNull(doc.getError());
+            } else {
+                assertTrue(doc.isSuccess());
+                assertEquals("Doc " + i, doc.getTitle());
+                assertTrue(doc.getUrl().endsWith("/pages/Doc " + i));
+            }
+        }
+    }
+
+    @Test
+    void createPagesBoundsRequestsInFlight() throws Exception {
+        List<CreatePageRequestDTO> requests = IntStream.range(0, 20)
+                .mapToObj(i -> CreatePageRequestDTO.builder().title("Doc " + i).parentPageId("1").build())
+                .toList();
+        AtomicInteger reported = new AtomicInteger();
+
+        List<BulkUploadResponseDTO.UploadedDocument> results = service.createPages(requests, doc -> reported.incrementAndGet())
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(20, results.size());
+        assertEquals(20, reported.get());
+        assertTrue(maxInFlight.get() <= 3, "at most 3 creates in flight, saw " + maxInFlight.get());
+    }
+
+    private void handleContent(HttpExchange exchange) throws IOException {
+        lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String path = exchange.getRequestURI().getPath();
+
+        if ("POST".equals(exchange.getRequestMethod())) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            JsonNode payload = objectMapper.readTree(exchange.getRequestBody());
+            String title = payload.path("title").asText();
+            if ("reject".equals(title) || !"1".equals(payload.path("ancestors").path(0).path("id").asText())) {
+                respond(exchange, 400, "{\"message\":\"rejected\"}");
+            } else {
+                respond(exchange, 200, page("id-" + title, title, 1));
+            }
+        } else if (path.endsWith("/42")) {
+            respond(exchange, 200, page("42", "Page 42", 3));
+        } else {
+            respond(exchange, 404, "{\"message\":\"not found\"}");
+        }
+    }
+
+    private String page(String id, String title, int version) {
+        return "{\"id\":\"" + id + "\",\"type\":\"page\",\"title\":\"" + title + "\","
+                + "\"version\":{\"number\":" + version + "},"
+                + "\"_links\":{\"webui\":\"/pages/" + title + "\"}}";
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
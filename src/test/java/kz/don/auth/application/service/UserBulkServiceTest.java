@@ -0,0 +1,95 @@
+package kz.don.auth.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import kz.don.auth.domain.enums.UserImportStatusEnum;
+import kz.don.auth.envers.AuditRevisions;
+import kz.don.auth.infrastructure.messaging.TokenAuditEventWriter;
+import kz.don.auth.infrastructure.security.jwt.TokenEpochRefresher;
+import kz.don.auth.web.dto.response.UserImportResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserBulkServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final UserBulkService service = new UserBulkService(jdbcTemplate, transactionTemplate,
+            new AuditRevisions(jdbcTemplate), mock(TokenAuditEventWriter.class), mock(TokenEpochRefresher.class), mock(PasswordEncoder.class),
+            mock(Validator.class), new ObjectMapper(), 2, 100, 1, 1000);
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void splitsQuotedCommasAndEscapedQuotes() {
+        assertEquals(List.of("a@example.com", "Doe, Jane", "pa\"ss"),
+                UserBulkService.splitCsvLine("a@example.com,\"Doe, Jane\",\"pa\"\"ss\""));
+        assertEquals(List.of("", "x", ""), UserBulkService.splitCsvLine(",x,"));
+        assertNull(UserBulkService.splitCsvLine("a,\"unterminated"));
+    }
+
+    @Test
+    void skipsBlankLinesAndKeepsLineNumbers() throws Exception {
+        String csv = "\uFEFFemail,full_name,password\n"
+                + "\n"
+                + "a@example.com,\"Doe, Jane\",secret123\n"
+                + "   \n"
+                + "b@example.com,Bob,\"x\"\"y\"\n";
+
+        List<UserBulkService.ImportRow> rows = service.parseCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, rows.size());
+        assertEquals(3, rows.get(0).line());
+        assertEquals("Doe, Jane", rows.get(0).request().getFullName());
+        assertEquals(5, rows.get(1).line());
+        assertEquals("x\"y", rows.get(1).request().getPassword());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedChunkIsReportedWithoutLosingCommittedOnes() throws Exception {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(mock(TransactionStatus.class)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(), any(), any(), any())).thenReturn(1);
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class), anyInt(), any()))
+                .thenReturn(new int[][]{{1, 1}}) // chunk 1: users
+                .thenReturn(new int[][]{{1, 1}}) // chunk 1: users_aud
+                .thenThrow(new DataIntegrityViolationException("boom")); // chunk 2
+        String csv = "email,fullName,password\n"
+                + "a@example.com,A,secret123\n"
+                + "b@example.com,B,secret123\n"
+                + "c@example.com,C,secret123\n";
+
+        UserImportResponse response = service.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserBulkService.TEXT_CSV);
+
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertEquals(List.of(UserImportStatusEnum.CREATED, UserImportStatusEnum.CREATED, UserImportStatusEnum.FAILED),
+                response.getRows().stream().map(UserImportResponse.RowResult::getStatus).toList());
+        assertNull(response.getRows().get(2).getUserId());
+        assertNotNull(response.getRows().get(2).getError());
+    }
+}
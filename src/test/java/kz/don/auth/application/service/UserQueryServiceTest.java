@@ -0,0 +1,62 @@
+package kz.don.auth.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import kz.don.auth.domain.enums.RoleEnum;
+import kz.don.auth.domain.projection.UserSummary;
+import kz.don.auth.domain.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserQueryServiceTest {
+
+    @Test
+    void exportWritesOneJsonObjectPerLine() throws Exception {
+        UserRepository userRepository = mock(UserRepository.class);
+        LocalDateTime at = LocalDateTime.of(2024, 5, 1, 12, 30);
+        List<UserSummary> users = List.of(
+                summary(new UUID(0, 1), "a@example.com", "Ann", RoleEnum.AUTHORITY, at),
+                summary(new UUID(0, 2), "b@example.com", "Bob", RoleEnum.CLIENT, at.plusMinutes(1)));
+        when(userRepository.findUserSummaries(any(), any(), any(), any(), any())).thenReturn(users);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long total = new UserQueryService(userRepository, objectMapper)
+                .exportUsers(new UserQueryService.Filter(null, null, null, null), out);
+
+        assertEquals(2, total);
+        String expected = "{\"id\":\"00000000-0000-0000-0000-000000000001\",\"email\":\"a@example.com\","
+                + "\"fullName\":\"Ann\",\"role\":\"AUTHORITY\",\"enabled\":true,"
+                + "\"createdAt\":\"2024-05-01T12:30:00\",\"updatedAt\":\"2024-05-01T12:30:00\"}\n"
+                + "{\"id\":\"00000000-0000-0000-0000-000000000002\",\"email\":\"b@example.com\","
+                + "\"fullName\":\"Bob\",\"role\":\"CLIENT\",\"enabled\":true,"
+                + "\"createdAt\":\"2024-05-01T12:31:00\",\"updatedAt\":\"2024-05-01T12:31:00\"}\n";
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    private static UserSummary summary(UUID id, String email, String fullName, RoleEnum role, LocalDateTime at) {
+        UserSummary user = mock(UserSummary.class);
+        when(user.getId()).thenReturn(id);
+        when(user.getEmail()).thenReturn(email);
+        when(user.getFullName()).thenReturn(fullName);
+        when(user.getRole()).thenReturn(role);
+        when(user.isEnabled()).thenReturn(true);
+        when(user.getCreatedAt()).thenReturn(at);
+        when(user.getUpdatedAt()).thenReturn(at);
+        return user;
+    }
+}
@@ -0,0 +1,93 @@
+package kz.don.auth.infrastructure.confluence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kz.don.auth.config.ConfluenceProperties;
+import kz.don.auth.infrastructure.messaging.InvalidationBus;
+import kz.don.auth.infrastructure.metrics.AuthMetrics;
+import kz.don.auth.web.dto.ConfluencePageDTO;
+import kz.don.auth.web.dto.response.ConfluenceSearchResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ConfluenceContentCacheTest {
+
+    private final ConfluenceContentCache cache = new ConfluenceContentCache(new ConfluenceProperties(),
+            new AuthMetrics(new SimpleMeterRegistry()), mock(InvalidationBus.class));
+
+    @Test
+    void collapsesWhitespaceOutsideQuotedStringsOnly() {
+        assertEquals("type = page AND title ~ \"a  b\"",
+                ConfluenceContentCache.SearchKey.of("  type  =\tpage\nAND title ~ \"a  b\"  ", 0, 10).cql());
+        assertEquals("text ~ 'it\\'s  here' AND space = X",
+                ConfluenceContentCache.SearchKey.of("text ~ 'it\\'s  here'   AND space = X", 0, 10).cql());
+        assertNotEquals(ConfluenceContentCache.SearchKey.of("title ~ \"a  b\"", 0, 10),
+                ConfluenceContentCache.SearchKey.of("title ~ \"a b\"", 0, 10));
+    }
+
+    @Test
+    void cachedPageIsNotSharedWithCallers() throws Exception {
+        ConfluencePageDTO loaded = ConfluencePageDTO.builder()
+                .id("1")
+                .title("Original")
+                .version(new ConfluencePageDTO.VersionDTO(3, null, null))
+                .build();
+        ConfluencePageDTO first = cache.getPage("1", () -> loaded, () -> 3);
+        first.setTitle("Changed by caller");
+        first.getVersion().setNumber(99);
+        loaded.setTitle("Changed by loader caller");
+
+        ConfluencePageDTO second = cache.getPage("1", () -> {
+            throw new AssertionError("served from cache");
+        }, () -> 3);
+
+        assertNotSame(first, second);
+        assertEquals("Original", second.getTitle());
+        assertEquals(3, second.getVersion().getNumber());
+    }
+
+    @Test
+    void loaderErrorIsRethrownAndNotCached() throws Exception {
+        ConfluenceContentCache.SearchKey key = ConfluenceContentCache.SearchKey.of("type = page", 0, 10);
+
+        assertThrows(AssertionError.class, () -> cache.getSearch(key, () -> {
+            throw new AssertionError("boom");
+        }));
+
+        AtomicInteger loads = new AtomicInteger();
+        ConfluenceSearchResponseDTO result = new ConfluenceSearchResponseDTO();
+        assertEquals(result, cache.getSearch(key, () -> {
+            loads.incrementAndGet();
+            return result;
+        }));
+        assertEquals(result, cache.getSearch(key, () -> {
+            throw new AssertionError("served from cache");
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void cachedSearchIsNotSharedWithCallers() throws Exception {
+        ConfluenceContentCache.SearchKey key = ConfluenceContentCache.SearchKey.of("type = page", 0, 10);
+        ConfluenceSearchResponseDTO loaded = new ConfluenceSearchResponseDTO(
+                new ArrayList<>(List.of(ConfluencePageDTO.builder().id("1").title("Original").build())), 0, 10, 1, null);
+
+        ConfluenceSearchResponseDTO first = cache.getSearch(key, () -> loaded);
+        first.getResults().get(0).setTitle("Changed by caller");
+
+        ConfluenceSearchResponseDTO second = cache.getSearchAsync(key, () -> {
+            throw new AssertionError("served from cache");
+        }).get();
+        second.getResults().get(0).setTitle("Changed by async caller");
+
+        assertEquals("Original", cache.getSearch(key, () -> {
+            throw new AssertionError("served from cache");
+        }).getResults().get(0).getTitle());
+        assertNotSame(first.getResults(), second.getResults());
+    }
+}
@@ -0,0 +1,106 @@
+package kz.don.auth.infrastructure.confluence;
+
+import kz.don.auth.config.ConfluenceProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-request overhead of building Confluence requests in bulk paths.
+ * The benchmark only runs with {@code mvn test -Dbenchmark=true -Dtest=ConfluenceRequestTemplateBenchmarkTest}
+ */
+@Slf4j
+class ConfluenceRequestTemplateBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private ConfluenceProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConfluenceProperties();
+        properties.setBaseUrl("https://wiki.example.com");
+        properties.setUsername("bot@example.com");
+        properties.setApiToken("token-0123456789abcdef");
+    }
+
+    @Test
+    void templateBuildsSameRequestAsPerCallFormatting() throws Exception {
+        HttpPost legacy = legacyRequest("12345");
+        HttpPost templated = templatedRequest(new ConfluenceRequestTemplates(properties), "12345");
+
+        assertEquals(legacy.getUri(), templated.getUri());
+        assertEquals(legacy.getFirstHeader(HttpHeaders.AUTHORIZATION).getValue(),
+                templated.getFirstHeader(HttpHeaders.AUTHORIZATION).getValue());
+    }
+
+    @Test
+    void templateIsRebuiltWhenCredentialsChange() {
+        ConfluenceRequestTemplates templates = new ConfluenceRequestTemplates(properties);
+        ConfluenceRequestTemplate first = templates.current();
+        assertSame(first, templates.current());
+
+        properties.setApiToken("rotated-token");
+
+        ConfluenceRequestTemplate second = templates.current();
+        assertNotSame(first, second);
+        assertEquals(basic("bot@example.com", "rotated-token"), second.getAuthorization());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkPerRequestOverhead() {
+        ConfluenceRequestTemplates templates = new ConfluenceRequestTemplates(properties);
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += legacyRequest(Integer.toString(i)).hashCode();
+            sink += templatedRequest(templates, Integer.toString(i)).hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += legacyRequest(Integer.toString(i)).hashCode();
+        }
+        long legacyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += templatedRequest(templates, Integer.toString(i)).hashCode();
+        }
+        long templatedNanos = System.nanoTime() - start;
+
+        log.info("String.format + Base64 per request: {} ns/op, precomputed request template: {} ns/op",
+                legacyNanos / ITERATIONS, templatedNanos / ITERATIONS);
+        assertNotEquals(0, sink);
+    }
+
+    /**
+     * What every ConfluenceService method used to do per call
+     */
+    private HttpPost legacyRequest(String pageId) {
+        String url = String.format("%s%s/content/%s", properties.getBaseUrl(), "/rest/api", pageId);
+        HttpPost request = new HttpPost(url);
+        request.setHeader("Authorization", basic(properties.getUsername(), properties.getApiToken()));
+        return request;
+    }
+
+    private HttpPost templatedRequest(ConfluenceRequestTemplates templates, String pageId) {
+        ConfluenceRequestTemplate template = templates.current();
+        return template.post(template.api("/content").path(pageId).build());
+    }
+
+    private static String basic(String username, String apiToken) {
+        String auth = username + ":" + apiToken;
+        return "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+package kz.don.auth.infrastructure.confluence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfluenceSearchIndexTest {
+
+    @Test
+    void stripsStorageMarkupAndKeepsCodeBodies() {
+        String storage = "<h1>Release&nbsp;notes</h1><p>Tom &amp; Jerry</p>"
+                + "<ac:structured-macro ac:name=\"code\"><ac:plain-text-body><![CDATA[select * from users]]>"
+                + "</ac:plain-text-body></ac:structured-macro><p>caf&#233;</p>";
+
+        List<String> terms = StorageText.tokenize(StorageText.strip(storage));
+
+        assertEquals(List.of("release", "notes", "tom", "jerry", "select", "from", "users", "café"), terms);
+    }
+
+    @Test
+    void ranksPagesContainingAllTermsByRelevance() {
+        ConfluenceSearchIndex index = new ConfluenceSearchIndex();
+        index.index("1", "PROJ", "Business requirements", "<p>Requirements for the billing module</p>", 1);
+        index.index("2", "PROJ", "Meeting notes", "<p>We discussed business requirements briefly</p>", 1);
+        index.index("3", "PROJ", "Business plan", "<p>Revenue targets</p>", 1);
+        index.index("4", "OPS", "Business requirements", "<p>Ops requirements</p>", 1);
+
+        List<ConfluenceSearchIndex.Hit> hits = index.search(List.of("business", "requirements"), "PROJ", 0, 10);
+
+        assertEquals(List.of("1", "2"), hits.stream().map(ConfluenceSearchIndex.Hit::pageId).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void replacesPagesOnNewVersionAndIgnoresOlderOnes() {
+        ConfluenceSearchIndex index = new ConfluenceSearchIndex();
+        index.index("1", "PROJ", "Draft", "<p>alpha</p>", 2);
+
+        assertFalse(index.index("1", "PROJ", "Draft", "<p>beta</p>", 1));
+        assertEquals(1, index.search(List.of("alpha"), null, 0, 10).size());
+
+        assertTrue(index.index("1", "PROJ", "Draft", "<p>gamma</p>", 3));
+        assertTrue(index.search(List.of("alpha"), null, 0, 10).isEmpty());
+        assertEquals(1, index.search(List.of("gamma"), null, 0, 10).size());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void compactionKeepsLiveDocumentsSearchable() {
+        ConfluenceSearchIndex index = new ConfluenceSearchIndex();
+        for (int version = 1; version <= 5; version++) {
+            for (int page = 0; page < 1000; page++) {
+                index.index("p" + page, "PROJ", "Page " + page, "<p>common v" + version + "</p>", version);
+            }
+        }
+
+        assertEquals(1000, index.size());
+        assertEquals(1000, index.search(List.of("common", "v5"), "PROJ", 0, 2000).size());
+        assertTrue(index.search(List.of("v4"), null, 0, 10).isEmpty());
+        assertEquals(10, index.search(List.of("common"), null, 990, 100).size());
+    }
+}
@@ -0,0 +1,54 @@
+package kz.don.auth.infrastructure.security.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenEpochTableTest {
+
+    @Test
+    void unknownUsersReadAsEpochZero() {
+        TokenEpochTable table = new TokenEpochTable();
+
+        assertEquals(0, table.current(UUID.randomUUID()));
+        assertFalse(table.advance(UUID.randomUUID(), 0));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void epochsOnlyMoveForward() {
+        TokenEpochTable table = new TokenEpochTable();
+        UUID user = UUID.randomUUID();
+
+        assertTrue(table.advance(user, 2));
+        assertFalse(table.advance(user, 1));
+        assertFalse(table.advance(user, 2));
+        assertEquals(2, table.current(user));
+
+        assertTrue(table.advance(user, 3));
+        assertEquals(3, table.current(user));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void keepsEveryEntryAcrossGrowth() {
+        TokenEpochTable table = new TokenEpochTable();
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // sequential ids sharing their high bits, as time-ordered ids would
+            UUID user = new UUID(42, i);
+            users.add(user);
+            table.advance(user, i + 1);
+        }
+
+        assertEquals(10_000, table.size());
+        for (int i = 0; i < users.size(); i++) {
+            assertEquals(i + 1, table.current(users.get(i)));
+        }
+        assertEquals(0, table.current(new UUID(42, 10_000)));
+    }
+}
@@ -0,0 +1,105 @@
+package kz.don.auth.infrastructure.security.opaque;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapSessionStoreTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void storesReplacesAndRemovesSessions() {
+        OffHeapSessionStore store = OffHeapSessionStore.inMemory(64);
+        OffHeapSessionStore.Session session = new OffHeapSessionStore.Session();
+
+        store.put(1, 2, session(7, NOW + 100, 3));
+        assertTrue(store.get(1, 2, NOW, session));
+        assertEquals(7, session.userLo);
+        assertEquals(3, session.epoch);
+
+        store.put(1, 2, session(8, NOW + 200, 4));
+        assertTrue(store.get(1, 2, NOW, session));
+        assertEquals(8, session.userLo);
+        assertEquals(1, store.size());
+
+        assertFalse(store.get(1, 2, NOW + 200, session));
+        assertTrue(store.remove(1, 2));
+        assertFalse(store.remove(1, 2));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void matchesAMapUnderRandomInsertsAndRemovals() {
+        OffHeapSessionStore store = OffHeapSessionStore.inMemory(4096);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        OffHeapSessionStore.Session session = new OffHeapSessionStore.Session();
+
+        for (int i = 0; i < 50_000; i++) {
+            // few distinct ids so that probe runs collide and removals shift entries back
+            long id = random.nextInt(2500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, store.remove(id, ~id));
+            } else {
+                long user = random.nextLong();
+                store.put(id, ~id, session(user, NOW + 1000, 0));
+                expected.put(id, user);
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        for (long id = 0; id < 2500; id++) {
+            boolean found = store.get(id, ~id, NOW, session);
+            assertEquals(expected.containsKey(id), found);
+            if (found) {
+                assertEquals(expected.get(id).longValue(), session.userLo);
+            }
+        }
+    }
+
+    @Test
+    void evictsInExpiryOrder() {
+        OffHeapSessionStore store = OffHeapSessionStore.inMemory(16);
+        OffHeapSessionStore.Session session = new OffHeapSessionStore.Session();
+        for (long id = 1; id <= 12; id++) {
+            store.put(id, id, session(id, NOW + id, 0));
+        }
+
+        assertEquals(5, store.evictExpired(NOW + 5));
+        assertFalse(store.get(5, 5, NOW, session));
+        assertTrue(store.get(6, 6, NOW, session));
+
+        // 16 slots hold 12 sessions at most: a full store makes room by dropping the soonest to expire
+        for (long id = 100; id < 106; id++) {
+            store.put(id, id, session(id, NOW + id, 0));
+        }
+        assertEquals(12, store.size());
+        assertFalse(store.get(6, 6, NOW, session));
+        assertTrue(store.get(7, 7, NOW, session));
+        assertTrue(store.get(105, 105, NOW, session));
+    }
+
+    @Test
+    void keepsEpochsBeyondIntRange() {
+        OffHeapSessionStore store = OffHeapSessionStore.inMemory(16);
+        OffHeapSessionStore.Session session = new OffHeapSessionStore.Session();
+
+        store.put(1, 1, session(11, NOW + 100, Integer.MAX_VALUE + 5L));
+        assertTrue(store.get(1, 1, NOW, session));
+        assertEquals(Integer.MAX_VALUE + 5L, session.epoch);
+        assertEquals(11, session.userLo);
+    }
+
+    private static OffHeapSessionStore.Session session(long user, long expiresAt, long epoch) {
+        OffHeapSessionStore.Session session = new OffHeapSessionStore.Session();
+        session.userLo = user;
+        session.expiresAt = expiresAt;
+        session.epoch = epoch;
+        return session;
+    }
+}